@@ -0,0 +1,104 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The roster that seeds team.csv on first run. It ships as the resource
+ * DefaultRoster.bin next to the classes rather than as code, so the roster
+ * classes no longer carry a hundred println literals.
+ *
+ * The resource is a string table plus rows of indexes into it; positions,
+ * roles and "N/A" are stored once however many rows use them:
+ *
+ *   int    magic "ROS1"
+ *   short  string count,  then each string as writeUTF
+ *   short  row count,     then COLUMNS string indexes per row (shorts)
+ *
+ * To change the default roster, edit a team.csv and repack it:
+ *
+ *   java DefaultRoster team.csv DefaultRoster.bin
+ */
+public final class DefaultRoster {
+
+    public static final String HEADER = "Name,Role,Position,Number,Offense/Defense";
+    public static final int COLUMNS = 5;
+
+    private static final String RESOURCE = "DefaultRoster.bin";
+    private static final int MAGIC = 0x524F5331;  // "ROS1"
+
+    private DefaultRoster() {}
+
+    /** Reads the packed roster: one String[COLUMNS] per row, header excluded. */
+    public static List<String[]> load() throws IOException {
+        InputStream res = DefaultRoster.class.getResourceAsStream(RESOURCE);
+        if (res == null) throw new FileNotFoundException(RESOURCE + " is missing from the class path");
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(res))) {
+            if (in.readInt() != MAGIC) throw new IOException(RESOURCE + " is not a packed roster");
+            String[] strings = new String[in.readUnsignedShort()];
+            for (int i = 0; i < strings.length; i++) strings[i] = in.readUTF();
+            int count = in.readUnsignedShort();
+            List<String[]> rows = new ArrayList<>(count);
+            for (int r = 0; r < count; r++) {
+                String[] row = new String[COLUMNS];
+                for (int c = 0; c < COLUMNS; c++) row[c] = strings[in.readUnsignedShort()];
+                rows.add(row);
+            }
+            return rows;
+        }
+    }
+
+    /** Writes rows as a roster CSV with the standard header. */
+    public static void writeCsv(List<String[]> rows, String filename) throws IOException {
+        try (Csv.Writer writer = new Csv.Writer(new FileWriter(filename, false))) {
+            writer.row(HEADER.split(","));
+            for (String[] row : rows) writer.row(row);
+        }
+    }
+
+    /** Packs a roster CSV (header first) into the resource format; returns the row count. */
+    public static int pack(String csvFile, String binFile) throws IOException {
+        List<String> strings = new ArrayList<>();
+        Map<String, Integer> index = new HashMap<>();
+        List<int[]> rows = new ArrayList<>();
+        Csv.RowCursor row = new Csv.RowCursor();
+        try (BufferedReader in = Files.newBufferedReader(Paths.get(csvFile))) {
+            in.readLine();
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (row.reset(line).fields() < COLUMNS) continue;
+                int[] packed = new int[COLUMNS];
+                for (int c = 0; c < COLUMNS; c++) {
+                    String s = row.field(c).trim();
+                    packed[c] = index.computeIfAbsent(s, k -> {
+                        strings.add(k);
+                        return strings.size() - 1;
+                    });
+                }
+                rows.add(packed);
+            }
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(binFile)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(strings.size());
+            for (String s : strings) out.writeUTF(s);
+            out.writeShort(rows.size());
+            for (int[] packed : rows) {
+                for (int i : packed) out.writeShort(i);
+            }
+        }
+        return rows.size();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: java DefaultRoster <team.csv> <DefaultRoster.bin>");
+            System.exit(2);
+        }
+        int rows = pack(args[0], args[1]);
+        System.out.println("Packed " + rows + " rows into " + args[1]);
+    }
+}
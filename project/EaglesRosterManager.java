@@ -1,18 +1,20 @@
 import java.awt.*;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
-import java.awt.image.BufferedImage;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.LineBorder;
@@ -23,7 +25,23 @@ private final String teamName = "Philadelphia Eagles";
     private final String coachName = "Nick Sirianni";
     private final String stadiumName = "Lincoln Financial Field";
     private final String description = "Based in Philadelphia, Pennsylvania, the Philadelphia Eagles are a professional football team that plays in the National Football League's (NFL) East division of the National Football Conference (NFC). Explore the roster below!";
-    private final java.util.List<Map<String, String>> players = new ArrayList<>();
+    private final AtomicReference<Roster> roster = new AtomicReference<>(Roster.EMPTY);
+    private JFrame frame;
+    private DefaultListModel<Map<String, String>> playerListModel;
+    private PlayerSearch playerSearch = new PlayerSearch(new ArrayList<>());
+    private PlayerFacets playerFacets = new PlayerFacets(new ArrayList<>(), "role", "type");
+    private JComboBox<String> roleDropdown;
+    private JComboBox<String> typeDropdown;
+    private final Map<String, Integer> roleCounts = new HashMap<>();
+    private final Map<String, Integer> typeCounts = new HashMap<>();
+    private JTextArea stats;
+    private JTextField search;
+    private JComboBox<String> sortDropdown;
+    private final Map<String, Map<String, String>> playersByName = new HashMap<>();
+    private static final RosterChanges ROSTER_CHANGES = new RosterChanges(RosterChanges.FILE);
+    private Headshots headshots;
+    private static final int THUMB_SIZE = 32, PHOTO_SIZE = 128;
+    private PlayerProfiles profiles;
     private static final Color MIDNIGHT_GREEN = new Color(0, 76, 84);
     private static final Color SILVER = new Color(165, 172, 175);
     private static final Color BLACK = new Color(0, 0, 0);
@@ -33,8 +51,9 @@ private final String teamName = "Philadelphia Eagles";
     private static final Color CHARCOAL = new Color(32, 32, 32);
     public EaglesRosterManager() {
     }
-    private void createAndShowGui() {
-        JFrame frame = new JFrame(teamName + " - Roster Manager");
+    /** Builds the main window without showing it; showRoster() fills it in. */
+    private void createGui() {
+        frame = new JFrame(teamName + " - Roster Manager");
         frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
         frame.setSize(1000, 700);
         frame.setLocationRelativeTo(null);
@@ -87,10 +106,7 @@ private final String teamName = "Philadelphia Eagles";
         rosterTitle.setForeground(SILVER);
         leftTopPanel.add(rosterTitle, BorderLayout.WEST);
         leftPanel.add(leftTopPanel, BorderLayout.NORTH);
-        DefaultListModel<Map<String, String>> playerListModel = new DefaultListModel<>();
-        for (Map<String, String> p : players) {
-            playerListModel.addElement(p);
-        }
+        playerListModel = new DefaultListModel<>();
         JList<Map<String, String>> rosterList = new JList<>(playerListModel);
         rosterList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         rosterList.setBackground(DARK_GREEN);
@@ -99,6 +115,18 @@ private final String teamName = "Philadelphia Eagles";
         rosterList.setSelectionForeground(WHITE);
         rosterList.setFont(new Font("Arial", Font.PLAIN, 13));
         rosterList.setBorder(new EmptyBorder(5, 10, 5, 10));
+        if (Files.exists(Paths.get("profiles.dat"))) {
+            try {
+                profiles = PlayerProfiles.open(Paths.get("profiles.dat"));
+            } catch (IOException e) {
+                System.err.println("Player profiles unavailable: " + e.getMessage());
+            }
+        }
+        JLabel photo = new JLabel();
+        headshots = new Headshots(Paths.get("headshots"), 16L << 20, () -> {
+            rosterList.repaint();
+            showPhoto(photo, rosterList.getSelectedValue());
+        });
         rosterList.setCellRenderer(new DefaultListCellRenderer() {
             @Override
             public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
@@ -110,6 +138,8 @@ private final String teamName = "Philadelphia Eagles";
                     String name = player.getOrDefault("name", "");
                     String position = player.getOrDefault("position", "");
                     setText("#" + number + " - " + name + " (" + position + ")");
+                    setIcon(headshots.get(player, THUMB_SIZE));
+                    setIconTextGap(10);
                     setBorder(new EmptyBorder(8, 10, 8, 10));
                     if (isSelected) {
                         setBackground(LIGHT_GREEN);
@@ -127,6 +157,16 @@ private final String teamName = "Philadelphia Eagles";
         rosterScroll.setBorder(new LineBorder(MIDNIGHT_GREEN, 2));
         rosterScroll.getViewport().setBackground(DARK_GREEN);
         leftPanel.add(rosterScroll, BorderLayout.CENTER);
+        rosterScroll.getViewport().addChangeListener(e -> {
+            int first = rosterList.getFirstVisibleIndex(), last = rosterList.getLastVisibleIndex();
+            if (first < 0) return;
+            int span = last - first + 1;
+            java.util.List<Map<String, String>> near = new ArrayList<>();
+            for (int i = Math.max(0, first - span); i <= Math.min(playerListModel.size() - 1, last + span); i++) {
+                near.add(playerListModel.get(i));
+            }
+            headshots.prefetch(near, THUMB_SIZE);
+        });
         split.setLeftComponent(leftPanel);
         JPanel rightPanel = new JPanel(new BorderLayout());
         rightPanel.setBackground(CHARCOAL);
@@ -147,7 +187,13 @@ private final String teamName = "Philadelphia Eagles";
         JScrollPane detailsScroll = new JScrollPane(details);
         detailsScroll.setBorder(new LineBorder(MIDNIGHT_GREEN, 2));
         detailsScroll.getViewport().setBackground(DARK_GREEN);
-        rightPanel.add(detailsScroll, BorderLayout.CENTER);
+        photo.setHorizontalAlignment(SwingConstants.CENTER);
+        photo.setBorder(new EmptyBorder(0, 0, 10, 0));
+        JPanel detailsBody = new JPanel(new BorderLayout());
+        detailsBody.setBackground(CHARCOAL);
+        detailsBody.add(photo, BorderLayout.NORTH);
+        detailsBody.add(detailsScroll, BorderLayout.CENTER);
+        rightPanel.add(detailsBody, BorderLayout.CENTER);
         split.setRightComponent(rightPanel);
         split.setDividerLocation(425);
         root.add(split, BorderLayout.CENTER);
@@ -164,7 +210,7 @@ private final String teamName = "Philadelphia Eagles";
         searchLabel.setForeground(WHITE);
         searchLabel.setFont(new Font("Arial", Font.BOLD, 13));
         searchPanel.add(searchLabel, BorderLayout.WEST);
-        JTextField search = new JTextField(30);
+        search = new JTextField(30);
         search.setFont(new Font("Arial", Font.PLAIN, 14));
         search.setBackground(WHITE);
         search.setForeground(BLACK);
@@ -184,7 +230,8 @@ private final String teamName = "Philadelphia Eagles";
         roleLabel.setForeground(WHITE);
         roleLabel.setFont(new Font("Arial", Font.BOLD, 12));
         String[] roles = {"All Roles", "Player", "Coach", "Staff"};
-        JComboBox<String> roleDropdown = new JComboBox<>(roles);
+        roleDropdown = new JComboBox<>(roles);
+        roleDropdown.setRenderer(countingRenderer(roleCounts));
         roleDropdown.setBackground(DARK_GREEN);
         roleDropdown.setForeground(WHITE);
         roleDropdown.setFont(new Font("Arial", Font.PLAIN, 12));
@@ -192,15 +239,16 @@ private final String teamName = "Philadelphia Eagles";
         typeLabel.setForeground(WHITE);
         typeLabel.setFont(new Font("Arial", Font.BOLD, 12));
         String[] types = {"All Types", "Offense", "Defense"};
-        JComboBox<String> typeDropdown = new JComboBox<>(types);
+        typeDropdown = new JComboBox<>(types);
+        typeDropdown.setRenderer(countingRenderer(typeCounts));
         typeDropdown.setBackground(DARK_GREEN);
         typeDropdown.setForeground(WHITE);
         typeDropdown.setFont(new Font("Arial", Font.PLAIN, 12));
         JLabel sortLabel = new JLabel("Sort by:");
         sortLabel.setForeground(WHITE);
         sortLabel.setFont(new Font("Arial", Font.BOLD, 12));
-        String[] sortOptions = {"Alphabetical", "Jersey Number", "Position"};
-        JComboBox<String> sortDropdown = new JComboBox<>(sortOptions);
+        String[] sortOptions = {"Best Match", "Alphabetical", "Jersey Number", "Position"};
+        sortDropdown = new JComboBox<>(sortOptions);
         sortDropdown.setBackground(DARK_GREEN);
         sortDropdown.setForeground(WHITE);
         sortDropdown.setFont(new Font("Arial", Font.PLAIN, 12));
@@ -222,19 +270,11 @@ private final String teamName = "Philadelphia Eagles";
         statsTitle.setForeground(SILVER);
         statsTitle.setBorder(new EmptyBorder(0, 0, 8, 0));
         statsPanel.add(statsTitle, BorderLayout.NORTH);
-        JTextArea stats = new JTextArea();
+        stats = new JTextArea();
         stats.setEditable(false);
         stats.setBackground(DARK_GREEN);
         stats.setForeground(WHITE);
         stats.setFont(new Font("Arial", Font.PLAIN, 13));
-        StringBuilder statsText = new StringBuilder();
-        statsText.append("  • Total Players: ").append(players.size()).append("\n");
-        statsText.append("  • Total Points (This Season): 379\n");
-        statsText.append("  • Total Touchdowns (This Season): 45\n");
-        statsText.append("  • Super Bowls Won: 2\n");
-        statsText.append("  • Total Seasons: 93\n");
-        statsText.append("  • Record (W/L/T): 649/645/27\n");
-        stats.setText(statsText.toString());
         stats.setBorder(new EmptyBorder(5, 5, 5, 5));
         JScrollPane statsScroll = new JScrollPane(stats);
         statsScroll.setBorder(null);
@@ -247,74 +287,25 @@ private final String teamName = "Philadelphia Eagles";
             if (!e.getValueIsAdjusting()) {
                 Map<String, String> selected = (Map<String, String>) rosterList.getSelectedValue();
                 if (selected != null) {
-                    details.setText(formatPlayerDetails(selected));
+                    details.setText(formatPlayerDetails(selected, java.util.List.of()));
+                    showProfile(details, rosterList, selected);
                 } else {
                     details.setText("");
                 }
+                showPhoto(photo, selected);
             }
         });
-        Runnable updateFilter = () -> {
-            String q = search.getText().trim().toLowerCase(Locale.ROOT);
-            String selectedRole = (String) roleDropdown.getSelectedItem();
-            String selectedType = (String) typeDropdown.getSelectedItem();
-            String sortBy = (String) sortDropdown.getSelectedItem();
-            java.util.List<Map<String, String>> filtered = new ArrayList<>();
-            for (Map<String, String> p : players) {
-                String name = p.getOrDefault("name", "").toLowerCase(Locale.ROOT);
-                String position = p.getOrDefault("position", "").toLowerCase(Locale.ROOT);
-                String number = p.getOrDefault("number", "");
-                String role = p.getOrDefault("role", "");
-                String type = p.getOrDefault("type", "");
-                boolean matchesSearch = q.isEmpty() || name.contains(q) || 
-                                    number.equals(q) || position.contains(q);
-                boolean matchesRole = "All Roles".equals(selectedRole) || 
-                                    role.equals(selectedRole);
-                boolean matchesType = "All Types".equals(selectedType) || 
-                                    type.equals(selectedType);
-                if (matchesSearch && matchesRole && matchesType) {
-                    filtered.add(p);
-                }
-            }
-            switch (sortBy) {
-                case "Jersey Number" -> filtered.sort((a, b) -> {
-                    String numStrA = a.getOrDefault("number", "");
-                    String numStrB = b.getOrDefault("number", "");
-                    boolean isNAA = numStrA.isEmpty() || numStrA.equals("N/A") || numStrA.equals("N/a");
-                    boolean isNAB = numStrB.isEmpty() || numStrB.equals("N/A") || numStrB.equals("N/a");
-                    if (isNAA && isNAB) return 0;
-                    if (isNAA) return 1;
-                    if (isNAB) return -1;
-                    try {
-                        int numA = Integer.parseInt(numStrA);
-                        int numB = Integer.parseInt(numStrB);
-                        return Integer.compare(numA, numB);
-                    } catch (NumberFormatException e) {
-                        return 0;
-                    }
-                });
-                case "Position" -> filtered.sort((a, b) -> 
-                    a.getOrDefault("position", "").compareTo(b.getOrDefault("position", ""))
-                );
-                default -> filtered.sort((a, b) -> 
-                    a.getOrDefault("name", "").compareTo(b.getOrDefault("name", ""))
-                );
-            }
-            playerListModel.clear();
-            for (Map<String, String> p : filtered) {
-                playerListModel.addElement(p);
-            }
-        };
         search.getDocument().addDocumentListener(new DocumentListener() {
             @Override
-            public void insertUpdate(DocumentEvent e) { updateFilter.run(); }
+            public void insertUpdate(DocumentEvent e) { updateFilter(); }
             @Override
-            public void removeUpdate(DocumentEvent e) { updateFilter.run(); }
+            public void removeUpdate(DocumentEvent e) { updateFilter(); }
             @Override
-            public void changedUpdate(DocumentEvent e) { updateFilter.run(); }
+            public void changedUpdate(DocumentEvent e) { updateFilter(); }
         });
-        roleDropdown.addActionListener(e -> updateFilter.run());
-        typeDropdown.addActionListener(e -> updateFilter.run());
-        sortDropdown.addActionListener(e -> updateFilter.run());
+        roleDropdown.addActionListener(e -> updateFilter());
+        typeDropdown.addActionListener(e -> updateFilter());
+        sortDropdown.addActionListener(e -> updateFilter());
         frame.setContentPane(root);
         frame.addWindowListener(new WindowAdapter() {
     @Override
@@ -347,9 +338,205 @@ private final String teamName = "Philadelphia Eagles";
             }
         });
         frame.setIconImage(createEaglesIcon());
+    }
+    /** Fills the roster list and team statistics, then shows the window. */
+    private void showRoster(Roster loaded) {
+        roster.set(loaded);
+        java.util.List<Map<String, String>> players = loaded.players();
+        for (Map<String, String> p : players) {
+            playersByName.putIfAbsent(p.getOrDefault("name", "").toLowerCase(Locale.ROOT), p);
+        }
+        playerSearch = new PlayerSearch(players);
+        playerFacets = new PlayerFacets(players, "role", "type");
+        BitSet everyone = new BitSet();
+        everyone.set(0, players.size());
+        showFacetCounts(everyone);
+        for (Map<String, String> p : players) {
+            playerListModel.addElement(p);
+        }
+        showStats();
         frame.setVisible(true);
+        try {
+            ROSTER_CHANGES.startWatching(changes -> {
+                roster.updateAndGet(r -> r.with(changes));
+                SwingUtilities.invokeLater(() -> catchUp(changes));
+            });
+        } catch (IOException e) {
+            System.err.println("Not following " + RosterChanges.FILE + ": " + e.getMessage());
+        }
+    }
+    private void showStats() {
+        StringBuilder statsText = new StringBuilder();
+        statsText.append("  • Total Players: ").append(roster.get().size()).append("\n");
+        statsText.append("  • Total Points (This Season): 379\n");
+        statsText.append("  • Total Touchdowns (This Season): 45\n");
+        statsText.append("  • Super Bowls Won: 2\n");
+        statsText.append("  • Total Seasons: 93\n");
+        statsText.append("  • Record (W/L/T): 649/645/27\n");
+        stats.setText(statsText.toString());
+    }
+    /** Rebuilds the list from the search box, the dropdowns and the sort order. */
+    private void updateFilter() {
+        String q = search.getText().trim();
+        java.util.List<Map<String, String>> filtered = new ArrayList<>();
+        BitSet hits = new BitSet();
+        for (Map<String, String> p : playerSearch.search(q, hits)) {
+            if (passesDropdowns(p)) {
+                filtered.add(p);
+            }
+        }
+        Comparator<Map<String, String>> order = listOrder();
+        if (order != null) filtered.sort(order);
+        playerListModel.clear();
+        for (Map<String, String> p : filtered) {
+            playerListModel.addElement(p);
+        }
+        showFacetCounts(hits);
+    }
+    /** Whether the player fits the Role and Type dropdowns. */
+    private boolean passesDropdowns(Map<String, String> p) {
+        String selectedRole = (String) roleDropdown.getSelectedItem();
+        String selectedType = (String) typeDropdown.getSelectedItem();
+        String role = p.getOrDefault("role", "");
+        String type = p.getOrDefault("type", "");
+        boolean matchesRole = "All Roles".equals(selectedRole) ||
+                            role.equals(selectedRole);
+        boolean matchesType = "All Types".equals(selectedType) ||
+                            type.equals(selectedType);
+        return matchesRole && matchesType;
+    }
+    /** The list order picked in the Sort dropdown; null for best match first. */
+    private Comparator<Map<String, String>> listOrder() {
+        String sortBy = (String) sortDropdown.getSelectedItem();
+        if (search.getText().trim().isEmpty() && "Best Match".equals(sortBy)) sortBy = "Alphabetical";
+        return switch (sortBy) {
+            case "Best Match" -> null;
+            case "Jersey Number" -> (a, b) -> {
+                String numStrA = a.getOrDefault("number", "");
+                String numStrB = b.getOrDefault("number", "");
+                boolean isNAA = numStrA.isEmpty() || numStrA.equals("N/A") || numStrA.equals("N/a");
+                boolean isNAB = numStrB.isEmpty() || numStrB.equals("N/A") || numStrB.equals("N/a");
+                if (isNAA && isNAB) return 0;
+                if (isNAA) return 1;
+                if (isNAB) return -1;
+                try {
+                    int numA = Integer.parseInt(numStrA);
+                    int numB = Integer.parseInt(numStrB);
+                    return Integer.compare(numA, numB);
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            };
+            case "Position" -> (a, b) ->
+                a.getOrDefault("position", "").compareTo(b.getOrDefault("position", ""));
+            default -> (a, b) ->
+                a.getOrDefault("name", "").compareTo(b.getOrDefault("name", ""));
+        };
+    }
+    /**
+     * Brings the search and facet indexes and the list up to the current
+     * roster for the players these moves named, inserting and removing single
+     * rows rather than rebuilding the list. A player whose map is not the one
+     * indexed has changed; batches already caught up with find nothing to do.
+     */
+    private void catchUp(java.util.List<RosterChanges.Change> changes) {
+        Roster current = roster.get();
+        for (RosterChanges.Change change : changes) {
+            Map<String, String> indexed = playersByName.get(change.name.toLowerCase(Locale.ROOT));
+            Map<String, String> now = current.find(change.name);
+            if (indexed == now) continue;
+            if (indexed != null) unlist(indexed);
+            if (now != null) enlist(now);
+        }
+        BitSet hits = new BitSet();
+        playerSearch.search(search.getText().trim(), hits);
+        showFacetCounts(hits);
+        showStats();
     }
-    private String formatPlayerDetails(Map<String, String> player) {
+    /** Takes a player out of the indexes and, if shown, out of the list. */
+    private void unlist(Map<String, String> player) {
+        playersByName.remove(player.getOrDefault("name", "").toLowerCase(Locale.ROOT));
+        playerFacets.remove(playerSearch.remove(player), player);
+        for (int row = 0; row < playerListModel.size(); row++) {
+            if (playerListModel.get(row) == player) {
+                playerListModel.remove(row);
+                break;
+            }
+        }
+    }
+    /** Adds a player to the indexes, and to the list if they pass the filter. */
+    private void enlist(Map<String, String> player) {
+        playersByName.put(player.getOrDefault("name", "").toLowerCase(Locale.ROOT), player);
+        int slot = playerSearch.add(player);
+        playerFacets.add(slot, player);
+        if (!passesDropdowns(player)) return;
+        String q = search.getText().trim();
+        Comparator<Map<String, String>> order = listOrder();
+        int row = 0;
+        if (order == null) {
+            boolean found = false;
+            for (Map<String, String> p : playerSearch.search(q)) {
+                if (p == player) {
+                    found = true;
+                    break;
+                }
+                if (passesDropdowns(p)) row++;
+            }
+            if (!found) return;
+        } else {
+            BitSet hits = new BitSet();
+            playerSearch.search(q, hits);
+            if (!hits.get(slot)) return;
+            while (row < playerListModel.size() && order.compare(playerListModel.get(row), player) <= 0) row++;
+        }
+        playerListModel.add(Math.min(row, playerListModel.size()), player);
+    }
+    /** Counts beside each Role and Type choice; each dropdown counts the matches the other lets through. */
+    private void showFacetCounts(BitSet hits) {
+        long[] typeOk = playerFacets.narrow(hits, "type", choice(typeDropdown, "All Types"));
+        long[] roleOk = playerFacets.narrow(hits, "role", choice(roleDropdown, "All Roles"));
+        countChoices(roleDropdown, "All Roles", "role", typeOk, roleCounts);
+        countChoices(typeDropdown, "All Types", "type", roleOk, typeCounts);
+    }
+    private void countChoices(JComboBox<String> box, String all, String field,
+                              long[] within, Map<String, Integer> counts) {
+        for (int i = 0; i < box.getItemCount(); i++) {
+            String value = box.getItemAt(i);
+            counts.put(value, playerFacets.count(field, value.equals(all) ? null : value, within));
+        }
+        box.repaint();
+    }
+    /** The selected value, or null when the "All …" entry is selected. */
+    private static String choice(JComboBox<String> box, String all) {
+        Object value = box.getSelectedItem();
+        return all.equals(value) ? null : (String) value;
+    }
+    /** Shows "Offense (27)" for a choice whose value stays "Offense". */
+    private static ListCellRenderer<Object> countingRenderer(Map<String, Integer> counts) {
+        return new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean selected, boolean focused) {
+                Integer n = counts.get(value);
+                return super.getListCellRendererComponent(list, n == null ? value : value + " (" + n + ")",
+                    index, selected, focused);
+            }
+        };
+    }
+    private void showPhoto(JLabel photo, Map<String, String> player) {
+        photo.setIcon(player == null ? null : headshots.get(player, PHOTO_SIZE));
+    }
+    /** Adds the player's profile to the details once it is read, off the Swing thread, if still selected. */
+    private void showProfile(JTextArea details, JList<Map<String, String>> list, Map<String, String> player) {
+        if (profiles == null) return;
+        CompletableFuture.supplyAsync(() -> profiles.get(player)).thenAccept(sections ->
+            SwingUtilities.invokeLater(() -> {
+                if (sections.isEmpty() || list.getSelectedValue() != player) return;
+                details.setText(formatPlayerDetails(player, sections));
+                details.setCaretPosition(0);
+            }));
+    }
+    private String formatPlayerDetails(Map<String, String> player, java.util.List<PlayerProfiles.Section> profile) {
         StringBuilder sb = new StringBuilder();
         sb.append("═══════════════════════════════════════\n");
         sb.append("  PLAYER INFORMATION\n");
@@ -360,54 +547,25 @@ private final String teamName = "Philadelphia Eagles";
         sb.append("  Role:       ").append(player.getOrDefault("role", "N/A")).append('\n');
         sb.append("  Type:       ").append(player.getOrDefault("type", "N/A")).append('\n');
         sb.append("\n═══════════════════════════════════════\n");
-        return sb.toString();
-    }
-    private Image createEaglesIcon() {
-        int size = 64;
-        Image img = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g2d = (Graphics2D) img.getGraphics();
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        g2d.setColor(MIDNIGHT_GREEN);
-        g2d.fillOval(0, 0, size, size);
-        g2d.setColor(SILVER);
-        g2d.setStroke(new BasicStroke(3));
-        g2d.drawOval(2, 2, size - 4, size - 4);
-        g2d.dispose();
-        return img;
-    }
-    public class UserInfoCSVHandler {
-    /**
-     * Save user information to a CSV file
-     */
-    public static void saveUserInfo(String name, String email, String favoriteTeam, String filename) throws IOException {
-        boolean fileExists = Files.exists(Paths.get(filename));
-        try (FileWriter fw = new FileWriter(filename, true);
-            PrintWriter writer = new PrintWriter(fw)) {
-            if (!fileExists) {
-                writer.println("Name,Email,Favorite Team,Login Date/Time");
+        for (PlayerProfiles.Section section : profile) {
+            sb.append("\n  ").append(section.title).append('\n');
+            sb.append("───────────────────────────────────────\n");
+            for (String line : section.text.split("\n")) {
+                sb.append("  ").append(line).append('\n');
             }
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-            String line = String.format("%s,%s,%s,%s",
-                escapeCSV(name),
-                escapeCSV(email),
-                escapeCSV(favoriteTeam),
-                timestamp
-            );
-            writer.println(line);
         }
+        return sb.toString();
     }
-    /**
-     * Escape special characters in CSV fields
-     */
-    private static String escapeCSV(String value) {
-        if (value == null || value.isEmpty()) return "";
-        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
-            return "\"" + value.replace("\"", "\"\"") + "\"";
-        }
-        return value;
+    private Image createEaglesIcon() {
+        return Headshots.badge(64, null);
     }
-}
     public static void main(String[] args) {
+        EdtMonitor.install();
+        CompletableFuture<Roster> roster =
+            CompletableFuture.supplyAsync(EaglesRosterManager::preloadRoster);
+        CompletableFuture<UserRegistry> users = CompletableFuture.supplyAsync(EaglesRosterManager::openUsers);
+        EaglesRosterManager gui = new EaglesRosterManager();
+        SwingUtilities.invokeLater(gui::createGui);
         while (true) {
             JTextField nameField = new JTextField(15);
             JTextField emailField = new JTextField(15);
@@ -468,160 +626,97 @@ private final String teamName = "Philadelphia Eagles";
                 continue;
             }
             try {
-                UserInfoCSVHandler.saveUserInfo(name, email, teamFan, "userinfo.csv");
+                users.join().login(name, email, teamFan);
             } catch (IOException e) {
                 JOptionPane.showMessageDialog(null, "Error saving user info: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            } catch (CompletionException e) {
+                JOptionPane.showMessageDialog(null, e.getCause().getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
             }
             break;
         }
+        long loggedIn = System.nanoTime();
+        Roster loaded;
         try {
-            ensureTeamCsvExists("team.csv");
-        } catch (IOException e) {
-            JOptionPane.showMessageDialog(null, "Error creating team.csv: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            loaded = roster.join();
+        } catch (CompletionException e) {
+            JOptionPane.showMessageDialog(null, e.getCause().getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            loaded = Roster.EMPTY;
         }
+        Roster first = loaded;
         SwingUtilities.invokeLater(() -> {
-            EaglesRosterManager gui = new EaglesRosterManager();
-            try {
-                gui.loadPlayersFromCSV("team.csv");
-            } catch (IOException e) {
-                JOptionPane.showMessageDialog(null, "Error loading players: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-            }
-            gui.createAndShowGui();
+            EdtMonitor.reportFirstPaint(gui.frame, "Roster window", "login", loggedIn);
+            gui.showRoster(first);
         });
     }
+    /** Opens the sign-in registry over userinfo.csv, in the background like the roster. */
+    private static UserRegistry openUsers() {
+        try {
+            return UserRegistry.open("userinfo.csv");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading userinfo.csv: " + e.getMessage(), e);
+        }
+    }
     /**
-     * If `team.csv` is missing, create it and populate with a full default roster.
+     * Creates team.csv if needed and reads it. Runs in the background while
+     * the welcome pop-up is open.
      */
-    private static void ensureTeamCsvExists(String filename) throws IOException {
-        if (!Files.exists(Paths.get(filename))) {
-            try (FileWriter fw = new FileWriter(filename, false);
-                PrintWriter pw = new PrintWriter(fw)) {
-                pw.println("Name,Role,Position,Number,Offense/Defense");
-                pw.println("Sam Howell,Player,Quarterback,14,Offense");
-                pw.println("Jalen Hurts,Player,Quarterback,1,Offense");
-                pw.println("Tanner McKee,Player,Quarterback,16,Offense");
-                pw.println("Saquon Barkley,Player,Runningback,26,Offense");
-                pw.println("Tank Bigsby,Player,Runningback,37,Offense");
-                pw.println("AJ Dillon,Player,Runningback,29,Offense");
-                pw.println("Will Shipley,Player,Runningback,28,Offense");
-                pw.println("Carson Steele,Player,Runningback,42,Offense");
-                pw.println("A.J. Brown,Player,Wide Receiver,11,Offense");
-                pw.println("Darius Cooper,Player,Wide Receiver,80,Offense");
-                pw.println("Britain Covey,Player,Wide Receiver,18,Offense");
-                pw.println("Jahan Dotson,Player,Wide Receiver,2,Offense");
-                pw.println("Danny Gray,Player,Wide Receiver,46,Offense");
-                pw.println("DeVonta Smith,Player,Wide Receiver,6,Offense");
-                pw.println("Quez Watkins,Player,Wide Receiver,16,Offense");
-                pw.println("Grant Calcaterra,Player,Tight End,81,Offense");
-                pw.println("Dallas Goedert,Player,Tight End,88,Offense");
-                pw.println("Kylen Granson,Player,Tight End,83,Offense");
-                pw.println("E.J. Jenkins,Player,Tight End,84,Offense");
-                pw.println("Cameron Latu,Player,Tight End,36,Offense");
-                pw.println("Cam Jurgens,Player,Center,51,Offense");
-                pw.println("Drew Kendall,Player,Center,66,Offense");
-                pw.println("Jake Majors,Player,Center,75,Offense");
-                pw.println("Brett Toth,Player,Center,64,Offense");
-                pw.println("Landon Dickerson,Player,Guard,69,Offense");
-                pw.println("Tyler Steen,Player,Guard,56,Offense");
-                pw.println("Fred Johnson,Player,Offensive Tackle,74,Offense");
-                pw.println("Lane Johnson,Player,Offensive Tackle,65,Offense");
-                pw.println("Jordan Mailata,Player,Offensive Tackle,68,Offense");
-                pw.println("John Ojukwu,Player,Offensive Tackle,61,Offense");
-                pw.println("Hollin Pierce,Player,Offensive Tackle,63,Offense");
-                pw.println("Matt Pryor,Player,Offensive Tackle,79,Offense");
-                pw.println("Cameron Williams,Player,Offensive Tackle,73,Offense");
-                pw.println("Brandon Graham,Player,Defensive End,55,Defense");
-                pw.println("Jose Ramirez,Player,Defensive End,N/A,Defense");
-                pw.println("Jalen Carter,Player,Defensive Tackle,98,Defense");
-                pw.println("Jordan Davis,Player,Defensive Tackle,90,Defense");
-                pw.println("Gabe Hall,Player,Defensive Tackle,96,Defense");
-                pw.println("Moro Ojomo,Player,Defensive Tackle,97,Defense");
-                pw.println("Ty Robinson,Player,Defensive Tackle,95,Defense");
-                pw.println("Jacob Sykes,Player,Defensive Tackle,93,Defense");
-                pw.println("Byron Young,Player,Defensive Tackle,94,Defense");
-                pw.println("Zack Baun,Player,Linebacker,53,Defense");
-                pw.println("Chance Campbell,Player,Linebacker,59,Defense");
-                pw.println("Jihaad Campbell,Player,Linebacker,30,Defense");
-                pw.println("Nakobe Dean,Player,Linebacker,17,Defense");
-                pw.println("Jalyx Hunt,Player,Linebacker,58,Defense");
-                pw.println("Smael Mondon Jr,Player,Linebacker,42,Defense");
-                pw.println("Jaelan Phillips,Player,Linebacker,50,Defense");
-                pw.println("Nolan Smith Jr,Player,Linebacker,3,Defense");
-                pw.println("Jeremiah Trotter Jr,Player,Linebacker,54,Defense");
-                pw.println("Joshua Uche,Player,Linebacker,0,Defense");
-                pw.println("Jakorian Bennett,Player,Cornerback,23,Defense");
-                pw.println("Michael Carter II,Player,Cornerback,35,Defense");
-                pw.println("Tariq Castro-Fields,Player,Cornerback,46,Defense");
-                pw.println("Cooper DeJean,Player,Cornerback,33,Defense");
-                pw.println("Adoree' Jackson,Player,Cornerback,8,Defense");
-                pw.println("Brandon Johnson,Player,Cornerback,49,Defense");
-                pw.println("Mac McWilliams,Player,Cornerback,22,Defense");
-                pw.println("Quinyon Mitchell,Player,Cornerback,27,Defense");
-                pw.println("Kelee Ringo,Player,Cornerback,7,Defense");
-                pw.println("Ambry Thomas,Player,Defensive Back,38,Defense");
-                pw.println("Reed Blankenship,Player,Safety,32,Defense");
-                pw.println("Sydney Brown,Player,Safety,21,Defense");
-                pw.println("Marcus Epps,Player,Safety,39,Defense");
-                pw.println("Andre' Sam,Player,Safety,31,Defense");
-                pw.println("Nick Sirianni,Coach,Head Coach,N/A,N/A");
-                pw.println("Michael Clay,Coach,Specail Teams Coordinator,N/A,N/A");
-                pw.println("Vic Fangio,Coach,Defensive Coordinator,N/A,Defense");
-                pw.println("Kevin Patullo,Coach,Offensive Coordinator,N/A,Offense");
-                pw.println("Roy Anderson,Coach,Cornerbacks Coach,N/A,Defense");
-                pw.println("Joe Kasper,Coach,Safties Coach,N/A,Defense");
-                pw.println("Bobby King,Coach,Inside Linebackers Coach,N/A,Defense");
-                pw.println("Scot Loeffler,Coach,Quarterbacks Coach,N/A,Offense");
-                pw.println("Jaon Michael,Coach,Tight Ends Coach,N/A,Offense");
-                pw.println("Aaron Moorehead,Coach,Wide Receivers Coach,N/A,Offense");
-                pw.println("Don Smolenski,Staff,President,N/A,N/A");
-                pw.println("Jeffery Lurie,Staff,Chairman/CEO,N/A,N/A");
-                pw.println("Christian Molnar,Staff,Director of Team Relationships,N/A,N/A");
-                pw.println("Daniel Goldsmith,Staff,Business Manager,N/A,N/A");
-                pw.println("Tara Sutphen,Staff,Operations and Event Director,N/A,N/A");
-                pw.println("Howie Roseman,Staff,General Manager,N/A,N/A");
-                pw.println("Dom DiSandro,Staff,CSO/Gameday Coaching Operations,N/A,N/A");
-                pw.println("Conner Barwin,Staff,Head of Football Development and Strategy,N/A,N/A");
-                pw.println("Kevin Dougherty,Staff,Video Director,N/A,N/A");
-                pw.println("Dan Ryan,Staff,Director of Team Travel and Football Logistics,N/A,N/A");
-                pw.println("Kathy Mair,Staff,Player Resource Coordinator,N/A,N/A");
-                pw.println("Nick Church,Staff,Lead Software Innovator,N/A,N/A");
-                pw.println("Matt Leo,Staff,Player Development Assistant,N/A,N/A");
-                pw.println("Kevin Mahon,Staff,Football Creative Services Producer,N/A,N/A");
-                pw.println("Patrick McDowll,Staff,Scout,N/A,N/A");
-                pw.println("Grant Reiter,Staff,Football Transactions Coordinator,N/A,N/A");
-                pw.println("Molly Rottinghaus,Staff,Football Operations Coordinator,N/A,N/A");
-                pw.println("Leif Thorson,Staff,Software Developer,N/A,N/A");
-                pw.println("Preston Tiffany,Staff,NFS Scout,N/A,N/A");
-                pw.println("Terrance Braxton,Staff,Pro Scout,N/A,N/A");
-                pw.println("Ameena Soliman,Staff,Director of Football Opertations/Pro Scout,N/A,N/A");
-                pw.println("Julian Lurie,Staff,Business and Football Operations Strategy,N/A,N/A");
-                pw.println("Fernando Noriega,Staff,Director of Player Performance and Sports Science,N/A,N/A");
-                pw.println("Dustin Woods,Staff,Interpersonal Performance Director,N/A,N/A");
-                pw.println("Steven Feldman,Staff,Coordinator of Rehabilitation,N/A,N/A");
-                pw.println("Stephanie Coppola,Staff,Performance Nutririon Coordinator,N/A,N/A");
-                pw.println("Dr. Arsh S. Dhanota,Staff,Head Team Physician,N/A,N/A");
-                pw.println("Dr. Peter DeLuca,Staff,Head Orthopedic Surgeon,N/A,N/A");
-                pw.println("Dr. Johannes Roedl,Staff,Musculoskeletal / Interventional Radiologist,N/A,N/A");
-                pw.println("Alessandra Lane,Staff,Director of Live Event Production,N/A,N/A");
-                pw.println("Summer Gilliam,Staff,Live Events Producer,N/A,N/A");
-            }
+    private static Roster preloadRoster() {
+        java.util.List<String[]> created;
+        try {
+            created = ensureTeamCsvExists("team.csv");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error creating team.csv: " + e.getMessage(), e);
+        }
+        java.util.List<String[]> rows;
+        try {
+            rows = readRows(Paths.get("team.csv"), created);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error loading players: " + e.getMessage(), e);
+        }
+        java.util.List<Map<String, String>> players = new ArrayList<>(rows.size());
+        for (String[] row : rows) {
+            players.add(player(row[0], row[1], row[2], row[3], row[4]));
+        }
+        try {
+            return Roster.of(players).with(ROSTER_CHANGES.readNew());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading " + RosterChanges.FILE + ": " + e.getMessage(), e);
         }
     }
-    private void loadPlayersFromCSV(String filename) throws IOException {
-        java.util.List<String> lines = Files.readAllLines(Paths.get(filename));
-        for (int i = 1; i < lines.size(); i++) {
-            String line = lines.get(i).trim();
-            if (line.isEmpty()) continue;
-            String[] parts = line.split(",");
-            if (parts.length >= 5) {
-                Map<String, String> player = new HashMap<>();
-                player.put("name", parts[0].trim());
-                player.put("role", parts[1].trim());
-                player.put("position", parts[2].trim());
-                player.put("number", parts[3].trim());
-                player.put("type", parts[4].trim());
-                players.add(player);
-            }
+    /**
+     * The rows of team.csv. They come from its snapshot when that was made
+     * from the file as it is now; otherwise the file is parsed (or the rows
+     * it was just created from are used) and the snapshot is rebuilt in the
+     * background for the next start.
+     */
+    private static java.util.List<String[]> readRows(Path csv, java.util.List<String[]> created) throws IOException {
+        RosterSnapshot.Key key = RosterSnapshot.key(csv);
+        if (created == null) {
+            java.util.List<String[]> cached = RosterSnapshot.read(csv, key);
+            if (cached != null) return cached;
         }
+        java.util.List<String[]> rows = created != null ? created : RosterSnapshot.parseCsv(csv);
+        RosterSnapshot.writeInBackground(csv, key, rows);
+        return rows;
+    }
+    /**
+     * If `team.csv` is missing, create it from the default roster resource
+     * and return those rows; returns null if the file already exists.
+     */
+    private static java.util.List<String[]> ensureTeamCsvExists(String filename) throws IOException {
+        if (Files.exists(Paths.get(filename))) return null;
+        java.util.List<String[]> rows = DefaultRoster.load();
+        DefaultRoster.writeCsv(rows, filename);
+        return rows;
+    }
+    private static Map<String, String> player(String name, String role, String position,
+                                              String number, String type) {
+        Map<String, String> player = new HashMap<>();
+        player.put("name", name);
+        player.put("role", role);
+        player.put("position", position);
+        player.put("number", number);
+        player.put("type", type);
+        return player;
     }
 }
\ No newline at end of file
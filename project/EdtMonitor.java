@@ -0,0 +1,312 @@
+import java.awt.*;
+import java.awt.event.InvocationEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.swing.AbstractButton;
+
+/**
+ * Measures how long the Swing event thread (EDT) is busy, so reports of a
+ * window "hanging" come with data. Shared by the roster and estimator
+ * programs; call install() at the top of main().
+ *
+ * The monitor replaces the system EventQueue and times every dispatched
+ * event. A watchdog thread looks at the EDT while an event runs; once one
+ * has run longer than the threshold it captures the EDT's stack, which names
+ * the listener at fault (updateFilter, deleteProject, …). Each block is
+ * reported on stderr with that stack, and on exit a histogram of event
+ * latencies over the whole run follows. Given a log file, these go there
+ * instead, and the histogram is written every minute, over that minute.
+ *
+ * Modal dialogs dispatch events from inside the event that opened them;
+ * the time the dialog sits open is not counted against that event.
+ *
+ *   -Dedt.monitor=off      do not install
+ *   -Dedt.thresholdMs=100  report events that run longer than this
+ *   -Dedt.log=EdtLatency.log  log to this file (off by default; it grows
+ *                            by a histogram a minute while the app runs)
+ *
+ * reportFirstPaint() reports a line the same way when a main window first
+ * paints. Run with -Dstartup.benchmark to print that time and exit, e.g.
+ *
+ *   for i in 1 2 3 4 5; do java -Dstartup.benchmark ConcretePadEstimator; done
+ *
+ * Most of a cold start is loading and verifying classes. A class-data-
+ * sharing archive, made once per build, takes much of that away. It only
+ * covers classes loaded from jars, so package the classes first:
+ *
+ *   jar cfe app.jar ConcretePadEstimator *.class
+ *   java -XX:ArchiveClassesAtExit=app.jsa -jar app.jar   (use it, then close)
+ *   java -XX:SharedArchiveFile=app.jsa -jar app.jar
+ */
+public final class EdtMonitor extends EventQueue {
+
+    // Histogram bucket upper bounds in ms; the last bucket is open-ended
+    private static final long[] BOUNDS_MS = { 1, 2, 4, 8, 16, 32, 64, 128, 256, 512, 1024, 2048 };
+    private static final long WINDOW_MS = 60_000;
+    private static final int MAX_DEPTH = 32;
+    private static final int STACK_FRAMES = 25;
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static EdtMonitor installed;
+
+    private final long thresholdNanos;
+    private final File logFile;  // null: report on stderr, one histogram at exit
+
+    // Written by the EDT only; [d] is the event dispatching at nesting depth d.
+    // An event's clock runs in segments: it stops while the event waits in a
+    // modal loop and restarts when the loop hands control back.
+    private final long[]    busy    = new long[MAX_DEPTH];
+    private final long[]    resumed = new long[MAX_DEPTH];
+    private final boolean[] running = new boolean[MAX_DEPTH];
+    private int depth;
+
+    // Read by the watchdog
+    private volatile Thread   edt;
+    private volatile AWTEvent current;       // innermost event being dispatched
+    private volatile long     activeSince;   // when the EDT last started running it
+    private volatile String   capturedStack; // stack of the current event, once blocked
+
+    private final AtomicLongArray counts = new AtomicLongArray(BOUNDS_MS.length + 1);
+    private final AtomicLong maxNanos = new AtomicLong();
+    private volatile long windowStart = System.currentTimeMillis();
+    private final ConcurrentLinkedQueue<String> pending = new ConcurrentLinkedQueue<>();
+
+    private EdtMonitor(long thresholdMs, File logFile) {
+        this.thresholdNanos = thresholdMs * 1_000_000;
+        this.logFile = logFile;
+    }
+
+    /** Installs the monitor once per JVM, unless -Dedt.monitor=off. */
+    public static synchronized void install() {
+        if (installed != null || "off".equalsIgnoreCase(System.getProperty("edt.monitor"))) return;
+        long threshold = Long.getLong("edt.thresholdMs", 100);
+        String logName = System.getProperty("edt.log");
+        File log = logName == null || logName.isEmpty() ? null : new File(logName);
+        installed = new EdtMonitor(threshold, log);
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(installed);
+
+        Thread watchdog = new Thread(installed::watch, "edt-watchdog");
+        watchdog.setDaemon(true);
+        watchdog.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(installed::close, "edt-monitor-close"));
+    }
+
+    // ── Startup ──────────────────────────────────────────────────────────────
+
+    /** Logs how long after launch the window first painted. */
+    public static void reportFirstPaint(Window window, String what) {
+        reportFirstPaint(window, what, null, 0);
+    }
+
+    /**
+     * Logs how long after launch, or after sinceNanos (a System.nanoTime()
+     * reading) when that is not 0, the window first painted. Call before
+     * making the window visible.
+     */
+    public static void reportFirstPaint(Window window, String what, String since, long sinceNanos) {
+        window.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowOpened(WindowEvent e) {
+                window.removeWindowListener(this);
+                // The first paint is queued behind the open event; report after it
+                EventQueue.invokeLater(() -> EventQueue.invokeLater(() -> {
+                    long ms = sinceNanos != 0
+                        ? (System.nanoTime() - sinceNanos) / 1_000_000
+                        : ProcessHandle.current().info().startInstant()
+                              .map(t -> System.currentTimeMillis() - t.toEpochMilli()).orElse(-1L);
+                    String line = String.format("%s painted %d ms after %s", what, ms,
+                        sinceNanos != 0 ? since : "launch");
+                    EdtMonitor m = installed;
+                    boolean benchmark = Boolean.getBoolean("startup.benchmark");
+                    // The benchmark prints the line itself; only a log file needs it too
+                    if (m != null && (m.logFile != null || !benchmark)) {
+                        m.pending.add(LocalDateTime.now().format(TIME) + "  " + line + "\n");
+                    }
+                    if (benchmark) {
+                        System.err.println(line);
+                        if (m != null) m.flush();
+                        System.exit(0);
+                    }
+                }));
+            }
+        });
+    }
+
+    // ── Timing (EDT) ─────────────────────────────────────────────────────────
+
+    @Override
+    protected void dispatchEvent(AWTEvent event) {
+        long now = System.nanoTime();
+        int d = depth++;
+        if (d >= MAX_DEPTH) {
+            try {
+                super.dispatchEvent(event);
+            } finally {
+                depth--;
+            }
+            return;
+        }
+        if (d == 0) edt = Thread.currentThread();
+        AWTEvent outer = current;
+        busy[d] = 0;
+        resumed[d] = now;
+        running[d] = true;
+        current = event;
+        activeSince = now;
+        capturedStack = null;
+        try {
+            super.dispatchEvent(event);
+        } finally {
+            long end = System.nanoTime();
+            if (running[d]) busy[d] += end - resumed[d];
+            record(event, busy[d]);
+            depth--;
+            if (d > 0) {
+                // Back in the outer event's modal loop, which is running again
+                resumed[d - 1] = end;
+                running[d - 1] = true;
+            }
+            current = outer;
+            activeSince = end;
+            capturedStack = null;
+        }
+    }
+
+    /** Called on the EDT when it waits for input, including inside modal loops. */
+    @Override
+    public AWTEvent getNextEvent() throws InterruptedException {
+        int d = depth - 1;
+        if (d >= 0 && d < MAX_DEPTH && running[d] && Thread.currentThread() == edt) {
+            busy[d] += System.nanoTime() - resumed[d];
+            running[d] = false;
+        }
+        return super.getNextEvent();
+    }
+
+    private void record(AWTEvent event, long nanos) {
+        int b = 0;
+        long ms = nanos / 1_000_000;
+        while (b < BOUNDS_MS.length && ms >= BOUNDS_MS[b]) b++;
+        counts.incrementAndGet(b);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+
+        if (nanos >= thresholdNanos) {
+            String stack = capturedStack;
+            pending.add(String.format("%s  EDT blocked %d ms by %s%n%s",
+                LocalDateTime.now().format(TIME), ms, describe(event),
+                stack != null ? stack : "    (finished before a stack was captured)\n"));
+        }
+    }
+
+    private static String describe(AWTEvent event) {
+        if (event instanceof InvocationEvent) return "invokeLater task";
+        Object src = event.getSource();
+        String name = src == null ? "" : src.getClass().getSimpleName();
+        if (src instanceof AbstractButton) {
+            String text = ((AbstractButton) src).getText();
+            if (text != null && !text.isEmpty()) name += " \"" + text + "\"";
+        }
+        return event.getClass().getSimpleName() + (name.isEmpty() ? "" : " on " + name);
+    }
+
+    // ── Watchdog ─────────────────────────────────────────────────────────────
+
+    private void watch() {
+        long period = Math.max(5, thresholdNanos / 2_000_000);
+        long nextWindow = System.currentTimeMillis() + WINDOW_MS;
+        while (true) {
+            try {
+                Thread.sleep(period);
+            } catch (InterruptedException ex) {
+                return;
+            }
+            Thread t = edt;
+            long since = activeSince;
+            if (t != null && current != null && capturedStack == null
+                    && System.nanoTime() - since >= thresholdNanos) {
+                StackTraceElement[] trace = t.getStackTrace();
+                // A modal dialog waiting for input is idle, not blocked
+                if (!waitingForEvents(trace) && activeSince == since) {
+                    capturedStack = format(trace);
+                }
+            }
+            if (System.currentTimeMillis() >= nextWindow) {
+                nextWindow += WINDOW_MS;
+                if (logFile != null) pending.add(histogram());
+            }
+            if (!pending.isEmpty()) flush();
+        }
+    }
+
+    private static boolean waitingForEvents(StackTraceElement[] trace) {
+        for (int i = 0; i < Math.min(trace.length, 12); i++) {
+            if (trace[i].getClassName().equals("java.awt.EventQueue")
+                    && trace[i].getMethodName().equals("getNextEvent")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String format(StackTraceElement[] trace) {
+        StringBuilder sb = new StringBuilder();
+        int n = Math.min(trace.length, STACK_FRAMES);
+        for (int i = 0; i < n; i++) sb.append("    at ").append(trace[i]).append('\n');
+        if (trace.length > n) sb.append("    … ").append(trace.length - n).append(" more\n");
+        return sb.toString();
+    }
+
+    // ── Histogram ────────────────────────────────────────────────────────────
+
+    /** Latencies since the last histogram, which are then reset. */
+    private String histogram() {
+        long now = System.currentTimeMillis(), seconds = (now - windowStart) / 1000;
+        windowStart = now;
+        long[] c = new long[counts.length()];
+        long total = 0;
+        for (int i = 0; i < c.length; i++) total += c[i] = counts.getAndSet(i, 0);
+        long max = maxNanos.getAndSet(0) / 1_000_000;
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%s  EDT latency, last %d s: %d events, max %d ms%n",
+            LocalDateTime.now().format(TIME), seconds, total, max));
+        if (total == 0) return sb.toString();
+        for (int i = 0; i < c.length; i++) {
+            if (c[i] == 0) continue;
+            String range = i == 0 ? "<1 ms"
+                : i == BOUNDS_MS.length ? "≥" + BOUNDS_MS[i - 1] + " ms"
+                : BOUNDS_MS[i - 1] + "-" + BOUNDS_MS[i] + " ms";
+            int bar = (int) Math.max(1, Math.round(40.0 * c[i] / total));
+            sb.append(String.format("    %12s %8d  %s%n", range, c[i], "#".repeat(bar)));
+        }
+        return sb.toString();
+    }
+
+    /** On exit: logs the last, partial window, or the whole run without a log. */
+    private void close() {
+        pending.add(histogram());
+        flush();
+    }
+
+    /** Appends queued entries to the log, or prints them on stderr when there is none. */
+    private synchronized void flush() {
+        if (logFile == null) {
+            String entry;
+            while ((entry = pending.poll()) != null) System.err.print(entry);
+            return;
+        }
+        try (Writer w = new OutputStreamWriter(new FileOutputStream(logFile, true), StandardCharsets.UTF_8)) {
+            String entry;
+            while ((entry = pending.poll()) != null) w.write(entry);
+        } catch (IOException ignored) {
+            // Instrumentation must never take the application down
+        }
+    }
+}
@@ -0,0 +1,201 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.swing.*;
+
+/**
+ * Player photos for the roster list and the details pane, read from a
+ * directory of image files named after the player ("jalen-hurts.jpg") or
+ * their jersey number ("1.png").
+ *
+ * get() never touches the disk: it returns the cached thumbnail, or a badge
+ * with the jersey number while the photo is decoded on a background thread.
+ * When a photo arrives the listener is run on the Swing thread so the
+ * caller can repaint. Large photos are decoded subsampled, close to the
+ * size they are shown at, and newer requests are served first, so the rows
+ * just scrolled into view load before ones already scrolled past.
+ *
+ * Thumbnails are kept in a least-recently-used cache bounded by pixel
+ * bytes. The cache and the set of pending loads are only used on the Swing
+ * thread, so they need no locking.
+ */
+public final class Headshots {
+
+    private static final String[] EXTENSIONS = { ".png", ".jpg", ".jpeg", ".gif" };
+    private static final Color MIDNIGHT_GREEN = new Color(0, 76, 84);
+    private static final Color SILVER = new Color(165, 172, 175);
+
+    private final Path dir;
+    private final long maxBytes;
+    private final Runnable onLoaded;
+    private long bytes;
+    private final Map<String, ImageIcon> cache = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ImageIcon> eldest) {
+            if (bytes <= maxBytes) return false;
+            bytes -= cost(eldest.getValue());
+            return true;
+        }
+    };
+    private final Set<String> pending = new HashSet<>();
+    private final ThreadPoolExecutor decoder;
+
+    public Headshots(Path dir, long maxBytes, Runnable onLoaded) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        this.onLoaded = onLoaded;
+        // A deque used as a stack: the latest request is decoded next
+        decoder = new ThreadPoolExecutor(2, 2, 0, TimeUnit.SECONDS, new LinkedBlockingDeque<Runnable>() {
+            @Override
+            public boolean offer(Runnable r) {
+                return offerFirst(r);
+            }
+        }, r -> {
+            Thread t = new Thread(r, "headshots");
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        });
+    }
+
+    /** The player's photo at size x size, or a placeholder until it has loaded. Swing thread only. */
+    public Icon get(Map<String, String> player, int size) {
+        String key = key(player, size);
+        ImageIcon icon = cache.get(key);
+        if (icon != null) return icon;
+        load(player, size, key);
+        return new ImageIcon(badge(size, player.getOrDefault("number", "")));
+    }
+
+    /** Starts loading photos not yet cached, e.g. for the rows around the visible ones. Swing thread only. */
+    public void prefetch(List<Map<String, String>> players, int size) {
+        // Queued in reverse so the first player is decoded first
+        for (int i = players.size() - 1; i >= 0; i--) {
+            Map<String, String> p = players.get(i);
+            String key = key(p, size);
+            if (!cache.containsKey(key)) load(p, size, key);
+        }
+    }
+
+    private void load(Map<String, String> player, int size, String key) {
+        if (!pending.add(key)) return;
+        String name = player.getOrDefault("name", "");
+        String number = player.getOrDefault("number", "");
+        decoder.execute(() -> {
+            BufferedImage img = read(name, number, size);
+            ImageIcon icon = new ImageIcon(img != null ? img : badge(size, number));
+            SwingUtilities.invokeLater(() -> {
+                pending.remove(key);
+                bytes += cost(icon);
+                cache.put(key, icon);
+                if (img != null) onLoaded.run();
+            });
+        });
+    }
+
+    private static String key(Map<String, String> player, int size) {
+        return player.getOrDefault("name", "") + '#' + player.getOrDefault("number", "") + '@' + size;
+    }
+
+    private static long cost(ImageIcon icon) {
+        return 4L * icon.getIconWidth() * icon.getIconHeight();
+    }
+
+    // ── Decoding ─────────────────────────────────────────────────────────────
+
+    /** The photo scaled to fit size x size, or null if there is none or it cannot be read. */
+    private BufferedImage read(String name, String number, int size) {
+        Path file = find(name, number);
+        if (file == null) return null;
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = in == null ? Collections.emptyIterator() : ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int w = reader.getWidth(0), h = reader.getHeight(0);
+                // Read every n-th pixel of a large photo, keeping twice the target size for a smooth scale
+                int step = Math.max(1, Math.min(w, h) / (size * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return scale(reader.read(0, param), size);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException ex) {
+            return null;  // shown as the badge, like a missing photo
+        }
+    }
+
+    private Path find(String name, String number) {
+        for (String base : new String[] { slug(name), number }) {
+            if (base.isEmpty()) continue;
+            for (String ext : EXTENSIONS) {
+                Path p = dir.resolve(base + ext);
+                if (Files.isRegularFile(p)) return p;
+            }
+        }
+        return null;
+    }
+
+    /** A player's name as a file name: "A.J. Brown" is "a-j-brown". */
+    static String slug(String name) {
+        return name.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "-").replaceAll("^-|-$", "");
+    }
+
+    /** Center-cropped to a square and drawn at size x size, in a circle like the badge. */
+    private static BufferedImage scale(BufferedImage src, int size) {
+        int side = Math.min(src.getWidth(), src.getHeight());
+        int x = (src.getWidth() - side) / 2, y = (src.getHeight() - side) / 4;  // faces sit high in a photo
+        BufferedImage out = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = out.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.setClip(new java.awt.geom.Ellipse2D.Float(0, 0, size, size));
+        g.drawImage(src, 0, 0, size, size, x, y, x + side, y + side, null);
+        g.setClip(null);
+        g.setColor(SILVER);
+        g.setStroke(new BasicStroke(Math.max(1, size / 21f)));
+        g.drawOval(1, 1, size - 2, size - 2);
+        g.dispose();
+        return out;
+    }
+
+    // ── Placeholder ──────────────────────────────────────────────────────────
+
+    /** The Eagles badge (the window icon), with a label such as a jersey number if given. */
+    static BufferedImage badge(int size, String label) {
+        BufferedImage img = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = img.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+        // Draw circle background
+        g2d.setColor(MIDNIGHT_GREEN);
+        g2d.fillOval(0, 0, size, size);
+
+        // Draw border
+        g2d.setColor(SILVER);
+        g2d.setStroke(new BasicStroke(size * 3 / 64f));
+        g2d.drawOval(2 * size / 64, 2 * size / 64, size - 4 * size / 64, size - 4 * size / 64);
+
+        if (label != null && !label.isEmpty()) {
+            g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g2d.setFont(new Font("Arial", Font.BOLD, Math.max(8, size * 2 / 5)));
+            FontMetrics fm = g2d.getFontMetrics();
+            g2d.drawString(label, (size - fm.stringWidth(label)) / 2, (size - fm.getHeight()) / 2 + fm.getAscent());
+        }
+        g2d.dispose();
+        return img;
+    }
+}
@@ -0,0 +1,203 @@
+import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.BitSet;
+import java.util.Map;
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import javax.swing.border.LineBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+/**
+ * Browses every player of every season from a PlayerPages store, in the
+ * roster manager's colors. The league is too large to load as player maps,
+ * so only the search and season/type indexes are in memory; the list reads
+ * the records of the rows it paints through the store's page cache.
+ *
+ *   java PlayerPages league.pages 2023.csv 2024.csv   (once, to build it)
+ *   java LeagueBrowser [league.pages]
+ */
+public class LeagueBrowser {
+
+    private static final int CACHE_PAGES = 256;  // 1 MB of records in memory
+
+    private static final Color MIDNIGHT_GREEN = new Color(0, 76, 84);
+    private static final Color SILVER = new Color(165, 172, 175);
+    private static final Color WHITE = new Color(255, 255, 255);
+    private static final Color DARK_GREEN = new Color(0, 50, 56);
+    private static final Color LIGHT_GREEN = new Color(0, 95, 106);
+    private static final Color CHARCOAL = new Color(32, 32, 32);
+
+    private final PlayerPages store;
+    private final PlayerSearch playerSearch;
+    private final PlayerFacets playerFacets;
+    private final PlayerPages.Model listModel;
+
+    private JTextField search;
+    private JComboBox<String> seasonDropdown;
+    private JComboBox<String> typeDropdown;
+    private JLabel status;
+
+    /** Opens the store and indexes it, streaming through the records; they stay on disk. */
+    private LeagueBrowser(Path file) throws IOException {
+        store = PlayerPages.open(file, CACHE_PAGES);
+        playerSearch = new PlayerSearch(store.size(), store::get);
+        playerFacets = new PlayerFacets(store.size(), store::get, "season", "type");
+        listModel = new PlayerPages.Model(store);
+    }
+
+    private void createGui() {
+        JFrame frame = new JFrame("League Browser - " + String.format("%,d", store.size()) + " players");
+        frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        frame.setSize(900, 650);
+        frame.setLocationRelativeTo(null);
+        frame.setIconImage(Headshots.badge(64, null));
+
+        JPanel root = new JPanel(new BorderLayout(10, 10));
+        root.setBackground(CHARCOAL);
+        root.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+
+        // Top: search and filters
+        JPanel top = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 5));
+        top.setBackground(MIDNIGHT_GREEN);
+        top.setBorder(new LineBorder(SILVER, 2));
+        top.add(label("🔍 Search:"));
+        search = new JTextField(25);
+        search.setFont(new Font("Arial", Font.PLAIN, 14));
+        top.add(search);
+        top.add(label("Season:"));
+        seasonDropdown = dropdown("All Seasons", "season");
+        top.add(seasonDropdown);
+        top.add(label("Type:"));
+        typeDropdown = dropdown("All Types", "type");
+        top.add(typeDropdown);
+        root.add(top, BorderLayout.NORTH);
+
+        // Center: the list, and the selected player's record
+        JList<Map<String, String>> list = new JList<>(listModel);
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.setBackground(DARK_GREEN);
+        list.setForeground(WHITE);
+        list.setSelectionBackground(LIGHT_GREEN);
+        list.setSelectionForeground(WHITE);
+        list.setFont(new Font("Arial", Font.PLAIN, 13));
+        list.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> l, Object value, int index, boolean isSelected, boolean cellHasFocus) {
+                super.getListCellRendererComponent(l, value, index, isSelected, cellHasFocus);
+                if (value instanceof Map) {
+                    @SuppressWarnings("unchecked")
+                    Map<String, String> player = (Map<String, String>) value;
+                    setText(player.get("season") + "  #" + player.get("number") + " - " + player.get("name")
+                            + " (" + player.get("position") + ")");
+                    setBorder(new EmptyBorder(4, 10, 4, 10));
+                    setBackground(isSelected ? LIGHT_GREEN : DARK_GREEN);
+                    setForeground(WHITE);
+                }
+                return this;
+            }
+        });
+        // Rows are all sized like this one, so the list never reads every record to lay out
+        list.setPrototypeCellValue(Map.of("season", "2025", "number", "99", "name", "Christian Gonzalez",
+                                          "position", "Wide Receiver"));
+        JScrollPane listScroll = new JScrollPane(list);
+        listScroll.setBorder(new LineBorder(MIDNIGHT_GREEN, 2));
+
+        JTextArea details = new JTextArea();
+        details.setEditable(false);
+        details.setFont(new Font("Arial", Font.PLAIN, 14));
+        details.setBackground(DARK_GREEN);
+        details.setForeground(WHITE);
+        details.setBorder(new EmptyBorder(15, 15, 15, 15));
+        list.addListSelectionListener(e -> {
+            if (e.getValueIsAdjusting()) return;
+            Map<String, String> p = list.getSelectedValue();
+            details.setText(p == null ? "" : "Name: " + p.get("name") + "\nSeason: " + p.get("season")
+                            + "\nRole: " + p.get("role") + "\nPosition: " + p.get("position")
+                            + "\nNumber: " + p.get("number") + "\nType: " + p.get("type"));
+        });
+
+        JSplitPane split = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, listScroll, new JScrollPane(details));
+        split.setDividerLocation(520);
+        root.add(split, BorderLayout.CENTER);
+
+        status = label("");
+        root.add(status, BorderLayout.SOUTH);
+
+        search.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) { updateFilter(); }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) { updateFilter(); }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) { updateFilter(); }
+        });
+        seasonDropdown.addActionListener(e -> updateFilter());
+        typeDropdown.addActionListener(e -> updateFilter());
+
+        frame.setContentPane(root);
+        updateFilter();
+        frame.setVisible(true);
+    }
+
+    /** Ranks the query against the in-memory index and shows the matches that pass the filters. */
+    private void updateFilter() {
+        BitSet hits = new BitSet();
+        int[] ranked = playerSearch.rank(search.getText().trim(), hits);
+        // Season, then type, narrowed as bitsets without reading a record
+        long[] ok = playerFacets.narrow(hits, "season", choice(seasonDropdown, "All Seasons"));
+        ok = playerFacets.narrow(BitSet.valueOf(ok), "type", choice(typeDropdown, "All Types"));
+        BitSet pass = BitSet.valueOf(ok);
+
+        int[] rows = new int[pass.cardinality()];
+        int n = 0;
+        for (int r : ranked) {
+            if (pass.get(r)) rows[n++] = r;
+        }
+        listModel.show(rows);
+        status.setText(String.format("  %,d of %,d players  ·  %s", rows.length, store.size(), store.cacheStats()));
+    }
+
+    private JComboBox<String> dropdown(String all, String field) {
+        JComboBox<String> box = new JComboBox<>();
+        box.addItem(all);
+        for (String v : playerFacets.values(field)) {
+            if (!v.isEmpty()) box.addItem(v);
+        }
+        box.setBackground(DARK_GREEN);
+        box.setForeground(WHITE);
+        box.setFont(new Font("Arial", Font.PLAIN, 12));
+        return box;
+    }
+
+    private static JLabel label(String text) {
+        JLabel label = new JLabel(text);
+        label.setForeground(WHITE);
+        label.setFont(new Font("Arial", Font.BOLD, 13));
+        return label;
+    }
+
+    /** The selected value, or null when the "All …" entry is selected. */
+    private static String choice(JComboBox<String> box, String all) {
+        Object value = box.getSelectedItem();
+        return all.equals(value) ? null : (String) value;
+    }
+
+    public static void main(String[] args) {
+        EdtMonitor.install();
+        Path file = Paths.get(args.length > 0 ? args[0] : "league.pages");
+        // Indexed here on the main thread, before there is a window to hold up
+        LeagueBrowser browser;
+        try {
+            browser = new LeagueBrowser(file);
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(null, "Error opening " + file + ": " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        SwingUtilities.invokeLater(browser::createGui);
+    }
+}
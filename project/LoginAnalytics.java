@@ -0,0 +1,377 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Sign-in statistics from the userinfo.csv log and the archives compaction
+ * moved aside (see UserRegistry):
+ *   - logins per hour of the day, per weekday, and per calendar day
+ *   - distinct users, estimated with a HyperLogLog (about 0.8% error)
+ *   - the most common favorite teams, counted in a count-min sketch
+ *
+ * Each file is split into line-aligned segments that worker threads read
+ * with positional FileChannel reads, as in the estimator's PortfolioReport.
+ * Every worker fills its own fixed-size sketches and the results are merged
+ * at the end, so memory does not grow with the number of lines: only the
+ * day table grows, by one entry per calendar day in the log.
+ *
+ *   java LoginAnalytics [log files...]   (default userinfo.csv and its archives)
+ */
+public final class LoginAnalytics {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    // userinfo.csv columns
+    private static final int COL_NAME = 0, COL_EMAIL = 1, COL_TEAM = 2, COL_TIME = 3;
+
+    /** One thread's (or the merged) results. */
+    public static final class Result {
+        public final long[] byHour = new long[24];
+        public final long[] byWeekday = new long[7];     // Monday first
+        public final TreeMap<Long, Long> byDay = new TreeMap<>();  // epoch day -> logins
+        public final HyperLogLog users = new HyperLogLog();
+        public final TeamCounts teams = new TeamCounts();
+        public long logins;
+        public long malformed;
+
+        // Rows are in time order, so logins are counted per run of one day
+        private int lastDate = -1;
+        private long lastEpochDay, dayRun;
+
+        private void endDay() {
+            if (dayRun > 0) byDay.merge(lastEpochDay, dayRun, Long::sum);
+            dayRun = 0;
+        }
+
+        void merge(Result o) {
+            o.endDay();
+            for (int i = 0; i < 24; i++) byHour[i] += o.byHour[i];
+            for (int i = 0; i < 7; i++) byWeekday[i] += o.byWeekday[i];
+            o.byDay.forEach((d, n) -> byDay.merge(d, n, Long::sum));
+            users.merge(o.users);
+            teams.merge(o.teams);
+            logins += o.logins;
+            malformed += o.malformed;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("%,d logins by about %,d users%n", logins, users.estimate()));
+            if (!byDay.isEmpty()) {
+                long first = byDay.firstKey(), last = byDay.lastKey();
+                sb.append(String.format("%s to %s: %,d days with logins, %.1f logins per day%n",
+                    LocalDate.ofEpochDay(first), LocalDate.ofEpochDay(last), byDay.size(),
+                    (double) logins / (last - first + 1)));
+                sb.append("Busiest days:");
+                byDay.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Long>comparingByValue().reversed()).limit(5)
+                    .forEach(e -> sb.append(String.format("  %s (%,d)", LocalDate.ofEpochDay(e.getKey()), e.getValue())));
+                sb.append(String.format("%n"));
+            }
+
+            sb.append(String.format("%nHour  Logins%n"));
+            long peak = Math.max(1, Arrays.stream(byHour).max().orElse(1));
+            for (int h = 0; h < 24; h++) {
+                sb.append(String.format("%02d:00 %,10d  %s%n", h, byHour[h], "#".repeat((int) (40 * byHour[h] / peak))));
+            }
+            sb.append(String.format("%nWeekday    Logins%n"));
+            for (int d = 0; d < 7; d++) {
+                sb.append(String.format("%-10s %,10d%n", DayOfWeek.of(d + 1), byWeekday[d]));
+            }
+
+            sb.append(String.format("%nFavorite team        Logins (estimated)%n"));
+            for (Map.Entry<String, Long> e : teams.top(10)) {
+                sb.append(String.format("%-20s %,10d%n", e.getKey(), e.getValue()));
+            }
+            if (malformed > 0) sb.append(String.format("%nSkipped %,d malformed rows%n", malformed));
+            return sb.toString();
+        }
+    }
+
+    // ── Entry points ─────────────────────────────────────────────────────────
+
+    /** Scans the given log files in parallel; missing files are skipped. */
+    public static Result run(List<Path> files) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "login-analytics");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            Result result = new Result();
+            for (Path f : files) {
+                if (Files.exists(f)) result.merge(scan(f, pool, threads));
+            }
+            return result;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (args.length == 0) {
+            Path log = Paths.get("userinfo.csv");
+            files.addAll(UserRegistry.archives(log));
+            files.add(log);
+        } else {
+            for (String a : args) files.add(Paths.get(a));
+        }
+        long start = System.nanoTime();
+        Result r = run(files);
+        System.out.print(r);
+        System.err.printf("Analysed %d files in %d ms%n", files.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // ── Parallel scan ────────────────────────────────────────────────────────
+
+    /** Splits the file into line-aligned segments, scans them in parallel and merges. */
+    private static Result scan(Path file, ExecutorService pool, int threads) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            int segments = (int) Math.max(1, Math.min(threads * 4L, size / BUFFER_SIZE));
+            long step = size / segments;
+
+            List<Future<Result>> parts = new ArrayList<>();
+            for (int i = 0; i < segments; i++) {
+                long from = i * step;
+                long to   = i == segments - 1 ? size : (i + 1) * step;
+                parts.add(pool.submit(() -> scanSegment(ch, from, to)));
+            }
+            Result merged = new Result();
+            for (Future<Result> f : parts) {
+                try {
+                    merged.merge(f.get());
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Analysis interrupted");
+                } catch (ExecutionException ex) {
+                    Throwable cause = ex.getCause();
+                    if (cause instanceof IOException) throw (IOException) cause;
+                    throw new IOException(cause);
+                }
+            }
+            return merged;
+        }
+    }
+
+    /**
+     * Handles every line that starts in [from, to). A segment skips its first
+     * partial line (the previous segment owns it) and reads past {@code to} to
+     * finish its last one. The header is the first line of segment 0.
+     */
+    private static Result scanSegment(FileChannel ch, long from, long to) throws IOException {
+        Result acc = new Result();
+        Csv.ByteCursor row = new Csv.ByteCursor();
+        ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE);
+        byte[] arr = buf.array();
+        long pos = from;
+        long lineStart = from;   // file offset of arr[0]
+        boolean skipFirst = true; // header (segment 0) or partial line (others)
+        if (from > 0) {
+            // If the byte before us is a newline we start on a line boundary
+            ByteBuffer one = ByteBuffer.allocate(1);
+            ch.read(one, from - 1);
+            skipFirst = one.get(0) != '\n';
+        }
+
+        while (true) {
+            int n = ch.read(buf, pos);
+            boolean eof = n <= 0;
+            if (!eof) pos += n;
+            int limit = buf.position();
+            int start = 0;
+            for (int i = 0; i < limit; i++) {
+                if (arr[i] != '\n') continue;
+                if (skipFirst) {
+                    skipFirst = false;
+                } else if (lineStart + start < to) {
+                    login(row.reset(arr, start, i), acc);
+                }
+                start = i + 1;
+                if (lineStart + start >= to) return acc;
+            }
+            if (eof) {
+                if (start < limit && !skipFirst && lineStart + start < to) {
+                    login(row.reset(arr, start, limit), acc);  // last line without newline
+                }
+                return acc;
+            }
+            // Move the unfinished line to the front of the buffer
+            if (start == 0 && limit == arr.length) {
+                ByteBuffer bigger = ByteBuffer.allocate(arr.length * 2);
+                bigger.put(arr, 0, limit);
+                buf = bigger;
+                arr = buf.array();
+            } else {
+                System.arraycopy(arr, start, arr, 0, limit - start);
+                buf.position(limit - start);
+                lineStart += start;
+            }
+        }
+    }
+
+    /** Folds one log row: Name, Email, Favorite Team, "yyyy-MM-dd HH:mm:ss". */
+    private static void login(Csv.ByteCursor row, Result acc) {
+        if (row.fields() < 4) {
+            if (!row.isBlank()) acc.malformed++;
+            return;
+        }
+        String time = row.text(COL_TIME);
+        if (time.length() < 13 || time.charAt(4) != '-' || time.charAt(7) != '-') {
+            acc.malformed++;
+            return;
+        }
+        int date = digits(time, 0, 4) * 10000 + digits(time, 5, 2) * 100 + digits(time, 8, 2);
+        int hour = digits(time, 11, 2);
+        if (date < 0 || hour < 0 || hour > 23) {
+            acc.malformed++;
+            return;
+        }
+        if (date != acc.lastDate) {
+            acc.endDay();
+            try {
+                acc.lastEpochDay = LocalDate.of(date / 10000, date / 100 % 100, date % 100).toEpochDay();
+            } catch (java.time.DateTimeException ex) {
+                acc.malformed++;
+                return;
+            }
+            acc.lastDate = date;
+        }
+        long day = acc.lastEpochDay;
+        acc.byHour[hour]++;
+        acc.byWeekday[(int) Math.floorMod(day + 3, 7L)]++;  // 1970-01-01 was a Thursday
+        acc.dayRun++;
+
+        // The same key as the registry: the email, or the name when there is none
+        long user = row.hash(COL_EMAIL);
+        acc.users.add(user == EMPTY ? row.hash(COL_NAME) * 31 + 1 : user);
+        acc.teams.add(row, COL_TEAM);
+        acc.logins++;
+    }
+
+    private static final long EMPTY = new Csv.ByteCursor().reset(new byte[0], 0, 0).hash(0);
+
+    /** The decimal number in s[from, from + len), or -1 if it is not all digits. */
+    private static int digits(String s, int from, int len) {
+        int v = 0;
+        for (int i = from; i < from + len; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            v = v * 10 + (c - '0');
+        }
+        return v;
+    }
+
+    // ── Sketches ─────────────────────────────────────────────────────────────
+
+    /** Distinct-count estimate in 16 KB: 2^14 registers of the longest run of leading zeros. */
+    public static final class HyperLogLog {
+        private static final int P = 14, M = 1 << P;
+        private final byte[] registers = new byte[M];
+
+        void add(long hash) {
+            int index = (int) (hash >>> (64 - P));
+            byte rank = (byte) (Long.numberOfLeadingZeros((hash << P) | (1L << (P - 1))) + 1);
+            if (rank > registers[index]) registers[index] = rank;
+        }
+
+        void merge(HyperLogLog o) {
+            for (int i = 0; i < M; i++) registers[i] = (byte) Math.max(registers[i], o.registers[i]);
+        }
+
+        public long estimate() {
+            double sum = 0;
+            int zeros = 0;
+            for (byte r : registers) {
+                sum += 1.0 / (1L << r);
+                if (r == 0) zeros++;
+            }
+            double alpha = 0.7213 / (1 + 1.079 / M);
+            double e = alpha * M * M / sum;
+            // Few distinct values: count the empty registers instead (linear counting)
+            if (e <= 2.5 * M && zeros > 0) e = M * Math.log((double) M / zeros);
+            return Math.round(e);
+        }
+    }
+
+    /**
+     * Logins per favorite team in a count-min sketch (4 rows of 4096
+     * counters; an estimate is never low and rarely high). A sketch cannot
+     * list its keys, so the names of the most frequent teams seen so far
+     * are kept beside it, at most CANDIDATES of them.
+     */
+    public static final class TeamCounts {
+        private static final int DEPTH = 4, WIDTH = 1 << 12, CANDIDATES = 64;
+        private final long[][] counts = new long[DEPTH][WIDTH];
+        private final Map<Long, String> names = new HashMap<>();  // hash -> team as first written
+
+        void add(Csv.ByteCursor row, int col) {
+            long h = row.hash(col);
+            long est = add(h, 1);
+            if (names.containsKey(h)) return;
+            if (names.size() < CANDIDATES) {
+                names.put(h, row.text(col));
+                return;
+            }
+            // Replace the least frequent candidate if this team has overtaken it
+            long weakest = 0, weakestCount = Long.MAX_VALUE;
+            for (long k : names.keySet()) {
+                long c = estimate(k);
+                if (c < weakestCount) {
+                    weakest = k;
+                    weakestCount = c;
+                }
+            }
+            if (est > weakestCount) {
+                names.remove(weakest);
+                names.put(h, row.text(col));
+            }
+        }
+
+        private long add(long hash, long n) {
+            long min = Long.MAX_VALUE;
+            for (int d = 0; d < DEPTH; d++) {
+                int i = slot(hash, d);
+                counts[d][i] += n;
+                min = Math.min(min, counts[d][i]);
+            }
+            return min;
+        }
+
+        long estimate(long hash) {
+            long min = Long.MAX_VALUE;
+            for (int d = 0; d < DEPTH; d++) min = Math.min(min, counts[d][slot(hash, d)]);
+            return min;
+        }
+
+        private static int slot(long hash, int d) {
+            return (int) ((hash >>> 32) + d * (hash | 1)) & (WIDTH - 1);
+        }
+
+        void merge(TeamCounts o) {
+            for (int d = 0; d < DEPTH; d++) {
+                for (int i = 0; i < WIDTH; i++) counts[d][i] += o.counts[d][i];
+            }
+            o.names.forEach(names::putIfAbsent);
+        }
+
+        /** The n teams with the highest estimates, highest first. */
+        public List<Map.Entry<String, Long>> top(int n) {
+            List<Map.Entry<String, Long>> out = new ArrayList<>();
+            for (Map.Entry<Long, String> e : names.entrySet()) {
+                out.add(new AbstractMap.SimpleEntry<>(e.getValue(), estimate(e.getKey())));
+            }
+            out.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+            return out.subList(0, Math.min(n, out.size()));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+import java.util.*;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Counts for the roster's filter dropdowns, e.g. "Offense (27)". Each value
+ * of a field (every role, every type) keeps the set of players having it as
+ * a bitset over roster indexes, built once per roster. A count is then the
+ * population count of that bitset ANDed with the current matches, a few
+ * dozen machine words for a league-sized roster, instead of a pass over the
+ * players per dropdown entry. Signings, cuts and changes update the bits of
+ * one player with add() and remove(), at the slot PlayerSearch gave them.
+ * Over a PlayerPages store the bitsets are built from one pass over the
+ * records and are indexed by record number.
+ */
+public final class PlayerFacets {
+
+    private int words;
+    private final Map<String, Map<String, long[]>> fields = new LinkedHashMap<>();
+
+    public PlayerFacets(List<Map<String, String>> players, String... fieldNames) {
+        this(players.size(), players::get, fieldNames);
+    }
+
+    /** Facets over count players read one at a time, e.g. PlayerPages::get. */
+    public PlayerFacets(int count, IntFunction<Map<String, String>> source, String... fieldNames) {
+        words = (count + 63) / 64;
+        for (String field : fieldNames) fields.put(field, new HashMap<>());
+        for (int p = 0; p < count; p++) {
+            Map<String, String> player = source.apply(p);
+            for (Map.Entry<String, Map<String, long[]>> f : fields.entrySet()) {
+                String v = player.getOrDefault(f.getKey(), "");
+                f.getValue().computeIfAbsent(v, k -> new long[words])[p >>> 6] |= 1L << p;
+            }
+        }
+    }
+
+    /** Sets the player's bit under each of its values, growing the bitsets if the slot is new. */
+    public void add(int slot, Map<String, String> player) {
+        if (slot >= words * 64) {
+            words = Math.max(slot / 64 + 1, words * 2);
+            for (Map<String, long[]> values : fields.values()) values.replaceAll((v, bits) -> Arrays.copyOf(bits, words));
+        }
+        for (Map.Entry<String, Map<String, long[]>> f : fields.entrySet()) {
+            String v = player.getOrDefault(f.getKey(), "");
+            f.getValue().computeIfAbsent(v, k -> new long[words])[slot >>> 6] |= 1L << slot;
+        }
+    }
+
+    /** Clears the player's bits; pass the player as it was when added. */
+    public void remove(int slot, Map<String, String> player) {
+        if (slot < 0 || slot >= words * 64) return;
+        for (Map.Entry<String, Map<String, long[]>> f : fields.entrySet()) {
+            long[] bits = f.getValue().get(player.getOrDefault(f.getKey(), ""));
+            if (bits != null) bits[slot >>> 6] &= ~(1L << slot);
+        }
+    }
+
+    /** The values seen for a field, e.g. every season in the league. */
+    public Set<String> values(String field) {
+        return new TreeSet<>(fields.get(field).keySet());
+    }
+
+    /** The matches that also have field = value; a null value keeps them all. */
+    public long[] narrow(BitSet matches, String field, String value) {
+        long[] out = Arrays.copyOf(matches.toLongArray(), words);
+        if (value == null) return out;
+        long[] bits = fields.get(field).get(value);
+        for (int i = 0; i < words; i++) out[i] &= bits == null ? 0 : bits[i];
+        return out;
+    }
+
+    /** How many of within have field = value; a null value counts them all. */
+    public int count(String field, String value, long[] within) {
+        long[] bits = value == null ? null : fields.get(field).get(value);
+        if (value != null && bits == null) return 0;
+        int n = 0;
+        for (int i = 0; i < words; i++) n += Long.bitCount(bits == null ? within[i] : within[i] & bits[i]);
+        return n;
+    }
+}
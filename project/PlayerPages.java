@@ -0,0 +1,277 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.List;
+import javax.swing.AbstractListModel;
+
+/**
+ * League-wide, multi-season player records kept on disk in fixed-size
+ * pages, for rosters too large to hold as one map per player. Records are
+ * read through a small page cache, so the heap holds the cache and the
+ * search and filter indexes, never the whole league.
+ *
+ *   page 0   int magic "PGS1", int record count
+ *   page 1…  RECORDS_PER_PAGE records of RECORD bytes each; a record is the
+ *            FIELDS in order, each a length byte and its UTF-8 bytes padded
+ *            to the field's WIDTH (longer values are cut at a character)
+ *
+ * Record i is on page 1 + i / RECORDS_PER_PAGE at a fixed offset, so a
+ * lookup is one page read at most. The cache evicts with the clock
+ * algorithm: a page read again since the hand last passed is spared once,
+ * which keeps the pages of the rows on screen while a scroll or an index
+ * build streams through the rest.
+ *
+ * The store is built from roster CSVs (team.csv's columns, plus a sixth
+ * Season column or else the file name as the season):
+ *
+ *   java PlayerPages league.pages 2023.csv 2024.csv 2025.csv
+ *   java PlayerPages league.pages               times random and scrolling reads
+ */
+public final class PlayerPages implements Closeable {
+
+    public static final String[] FIELDS = { "name", "role", "position", "number", "type", "season" };
+    private static final int[] WIDTH    = {     40,     16,         24,        4,     16,       16 };
+
+    private static final int MAGIC = 0x50475331;  // "PGS1"
+    public static final int PAGE = 4096;
+    public static final int RECORD = 128;
+    public static final int RECORDS_PER_PAGE = PAGE / RECORD;
+
+    private final FileChannel channel;
+    private final int count;
+
+    // The cache: frame f holds page pageIn[f] (-1 if empty); referenced is the clock bit
+    private final ByteBuffer[] frames;
+    private final int[] pageIn;
+    private final boolean[] referenced;
+    private final Map<Integer, Integer> frameOf = new HashMap<>();
+    private int hand;
+    private long hits, misses;
+
+    private PlayerPages(FileChannel channel, int cachePages) throws IOException {
+        this.channel = channel;
+        ByteBuffer head = ByteBuffer.allocate(8);
+        while (head.hasRemaining() && channel.read(head, head.position()) > 0) { }
+        if (head.position() < 8 || head.getInt(0) != MAGIC) throw new IOException("not a player page store");
+        count = head.getInt(4);
+        long pages = 1 + ((long) count + RECORDS_PER_PAGE - 1) / RECORDS_PER_PAGE;
+        if (count < 0 || channel.size() < pages * PAGE) throw new IOException("player pages are truncated");
+        frames = new ByteBuffer[Math.max(2, cachePages)];
+        pageIn = new int[frames.length];
+        referenced = new boolean[frames.length];
+        Arrays.fill(pageIn, -1);
+    }
+
+    /** Opens a store with room for cachePages pages (of PAGE bytes) in memory. */
+    public static PlayerPages open(Path file, int cachePages) throws IOException {
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new PlayerPages(ch, cachePages);
+        } catch (IOException ex) {
+            ch.close();
+            throw new IOException(file.getFileName() + ": " + ex.getMessage(), ex);
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /** Record i as a player map (name, role, position, number, type, season). Safe from any thread. */
+    public synchronized Map<String, String> get(int i) {
+        if (i < 0 || i >= count) throw new IndexOutOfBoundsException("player " + i + " of " + count);
+        ByteBuffer page;
+        try {
+            page = page(1 + i / RECORDS_PER_PAGE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        int at = (i % RECORDS_PER_PAGE) * RECORD;
+        Map<String, String> player = new HashMap<>(FIELDS.length * 2);
+        for (int f = 0; f < FIELDS.length; f++) {
+            int len = page.get(at) & 0xff;
+            player.put(FIELDS[f], new String(page.array(), at + 1, len, StandardCharsets.UTF_8));
+            at += 1 + WIDTH[f];
+        }
+        return player;
+    }
+
+    /** Cache hits and misses so far, for the status line and the benchmark. */
+    public synchronized String cacheStats() {
+        long total = hits + misses;
+        return String.format("%d/%d pages cached, %.1f%% hits", frameOf.size(), frames.length,
+                             total == 0 ? 0.0 : 100.0 * hits / total);
+    }
+
+    private ByteBuffer page(int n) throws IOException {
+        Integer f = frameOf.get(n);
+        if (f != null) {
+            hits++;
+            referenced[f] = true;
+            return frames[f];
+        }
+        misses++;
+        // Advance the hand past recently used pages, clearing their bit as it goes
+        while (pageIn[hand] >= 0 && referenced[hand]) {
+            referenced[hand] = false;
+            hand = (hand + 1) % frames.length;
+        }
+        int victim = hand;
+        hand = (hand + 1) % frames.length;
+        if (pageIn[victim] >= 0) frameOf.remove(pageIn[victim]);
+        if (frames[victim] == null) frames[victim] = ByteBuffer.allocate(PAGE);
+
+        ByteBuffer buf = frames[victim].clear();
+        long pos = (long) n * PAGE;
+        while (buf.hasRemaining() && channel.read(buf, pos + buf.position()) > 0) { }
+        pageIn[victim] = n;
+        frameOf.put(n, victim);
+        referenced[victim] = true;
+        return buf;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // ── List model ───────────────────────────────────────────────────────────
+
+    /**
+     * A JList model over some of the store's records, in a given order (e.g.
+     * search results). Rows are only read when the list asks for them, i.e.
+     * as they are painted; give the JList a fixed cell height so it does not
+     * read every row to measure them.
+     */
+    public static final class Model extends AbstractListModel<Map<String, String>> {
+        private static final long serialVersionUID = 1L;
+
+        private final PlayerPages store;
+        private int[] rows = new int[0];
+
+        public Model(PlayerPages store) {
+            this.store = store;
+        }
+
+        /** Shows these record numbers, in this order. */
+        public void show(int[] records) {
+            int old = rows.length;
+            rows = new int[0];
+            if (old > 0) fireIntervalRemoved(this, 0, old - 1);
+            rows = records;
+            if (rows.length > 0) fireIntervalAdded(this, 0, rows.length - 1);
+        }
+
+        /** The record number shown at a row. */
+        public int record(int row) {
+            return rows[row];
+        }
+
+        @Override
+        public int getSize() {
+            return rows.length;
+        }
+
+        @Override
+        public Map<String, String> getElementAt(int row) {
+            return store.get(rows[row]);
+        }
+    }
+
+    // ── Building ─────────────────────────────────────────────────────────────
+
+    /** Writes the rows of the given CSVs into a new store; returns the record count. */
+    public static int build(Path out, List<Path> csvs) throws IOException {
+        Path tmp = out.resolveSibling(out.getFileName() + ".tmp");
+        int count = 0;
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                               StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer page = ByteBuffer.allocate(PAGE);
+            long pos = PAGE;  // page 0, the header, is written last
+            Csv.RowCursor row = new Csv.RowCursor();
+            String[] fields = new String[FIELDS.length];
+            for (Path csv : csvs) {
+                String season = csv.getFileName().toString().replaceFirst("\\.[^.]*$", "");
+                try (BufferedReader in = Files.newBufferedReader(csv)) {
+                    in.readLine(); // header
+                    String line;
+                    while ((line = in.readLine()) != null) {
+                        if (row.reset(line).fields() < DefaultRoster.COLUMNS) continue;
+                        for (int c = 0; c < DefaultRoster.COLUMNS; c++) fields[c] = row.field(c).trim();
+                        fields[5] = row.fields() > 5 ? row.field(5).trim() : season;
+                        page.position((count % RECORDS_PER_PAGE) * RECORD);
+                        encode(page, fields);
+                        if (++count % RECORDS_PER_PAGE == 0) {
+                            pos += write(ch, page, pos);
+                        }
+                    }
+                }
+            }
+            if (count % RECORDS_PER_PAGE != 0) write(ch, page, pos);
+            ByteBuffer head = ByteBuffer.allocate(PAGE).putInt(MAGIC).putInt(count);
+            write(ch, head, 0);
+        }
+        Files.move(tmp, out, StandardCopyOption.REPLACE_EXISTING);
+        return count;
+    }
+
+    private static void encode(ByteBuffer page, String[] fields) {
+        for (int f = 0; f < FIELDS.length; f++) {
+            byte[] b = fields[f].getBytes(StandardCharsets.UTF_8);
+            int len = Math.min(b.length, WIDTH[f]);
+            while (len < b.length && (b[len] & 0xc0) == 0x80) len--;  // don't split a character
+            page.put((byte) len).put(b, 0, len).position(page.position() + WIDTH[f] - len);
+        }
+    }
+
+    /** Writes the whole page buffer at pos and clears it; returns PAGE. */
+    private static int write(FileChannel ch, ByteBuffer page, long pos) throws IOException {
+        page.clear();
+        while (page.hasRemaining()) ch.write(page, pos + page.position());
+        Arrays.fill(page.array(), (byte) 0);
+        page.clear();
+        return PAGE;
+    }
+
+    // ── Tool and benchmark ───────────────────────────────────────────────────
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("usage: java PlayerPages <store> [roster.csv ...]");
+            System.exit(2);
+        }
+        Path store = Paths.get(args[0]);
+        if (args.length > 1) {
+            List<Path> csvs = new ArrayList<>();
+            for (int i = 1; i < args.length; i++) csvs.add(Paths.get(args[i]));
+            long t0 = System.nanoTime();
+            int n = build(store, csvs);
+            System.out.printf("Paged %,d players into %s (%,d KB) in %.0f ms%n", n, store,
+                              Files.size(store) >> 10, (System.nanoTime() - t0) / 1e6);
+            return;
+        }
+
+        try (PlayerPages pages = open(store, 256)) {
+            int n = pages.size();
+            Random rnd = new Random(7);
+            long t0 = System.nanoTime();
+            for (int i = 0; i < 200_000; i++) pages.get(rnd.nextInt(n));
+            double random = (System.nanoTime() - t0) / 200_000.0 / 1e3;
+            System.out.printf("%,d players, random reads: %.2f us each, %s%n", n, random, pages.cacheStats());
+
+            // Scrolling: a screenful of rows at a time, down a stretch and back up
+            try (PlayerPages scroll = open(store, 256)) {
+                int span = Math.min(n, 20_000), reads = 0;
+                t0 = System.nanoTime();
+                for (int pass = 0; pass < 20; pass++) {
+                    for (int r = 0; r < span; r++, reads++) scroll.get(pass % 2 == 0 ? r : span - 1 - r);
+                }
+                double each = (System.nanoTime() - t0) / (double) reads / 1e3;
+                System.out.printf("scrolling reads: %.2f us each, %s%n", each, scroll.cacheStats());
+            }
+        }
+    }
+}
@@ -0,0 +1,231 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.List;
+
+/**
+ * Long-form player profiles (bio, career stats, injury history) for the
+ * details pane, kept in profiles.dat and read one player at a time.
+ *
+ * The file is memory-mapped, so its pages are only read from disk when a
+ * profile on them is asked for, and the index is searched in place rather
+ * than loaded: the heap holds just the few profiles kept for recently
+ * viewed players. Profiles are found by the player's name slug, the same
+ * one Headshots uses for photos.
+ *
+ *   int    magic "PRF1"
+ *   int    profile count
+ *   count  index entries sorted by hash: long slug hash, long offset, int length
+ *   then   one record per profile at its offset:
+ *            writeUTF slug, short section count,
+ *            per section writeUTF title, int length, UTF-8 text
+ *
+ * Profiles are written as text files, one per player, named by slug, with
+ * "## Title" lines starting each section. To rebuild the store:
+ *
+ *   java PlayerProfiles profiles/ profiles.dat
+ */
+public final class PlayerProfiles implements Closeable {
+
+    private static final int MAGIC = 0x50524631;  // "PRF1"
+    private static final int ENTRY = 20;          // bytes per index entry
+    private static final int RECENT = 8;          // profiles kept after viewing
+
+    /** One titled part of a profile, e.g. "Career Stats". */
+    public static final class Section {
+        public final String title, text;
+
+        Section(String title, String text) {
+            this.title = title;
+            this.text = text;
+        }
+    }
+
+    private final FileChannel channel;
+    private final MappedByteBuffer map;
+    private final int count;
+    private final Map<String, List<Section>> recent = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<Section>> eldest) {
+            return size() > RECENT;
+        }
+    };
+
+    private PlayerProfiles(FileChannel channel) throws IOException {
+        this.channel = channel;
+        map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        if (map.limit() < 8 || map.getInt(0) != MAGIC) throw new IOException("not a profile store");
+        count = map.getInt(4);
+        if (count < 0 || 8L + (long) count * ENTRY > map.limit()) throw new IOException("profile index is truncated");
+    }
+
+    /** Maps the store; throws if it is missing or not a profile store. */
+    public static PlayerProfiles open(Path file) throws IOException {
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new PlayerProfiles(ch);
+        } catch (IOException ex) {
+            ch.close();
+            throw new IOException(file.getFileName() + ": " + ex.getMessage(), ex);
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /** The player's profile sections, or an empty list if there is none. Safe from any thread. */
+    public synchronized List<Section> get(Map<String, String> player) {
+        String slug = Headshots.slug(player.getOrDefault("name", ""));
+        List<Section> hit = recent.get(slug);
+        if (hit != null) return hit;
+        List<Section> sections = read(slug);
+        recent.put(slug, sections);
+        return sections;
+    }
+
+    /** Binary search of the mapped index, then the record; slugs sharing a hash are told apart by the stored slug. */
+    private List<Section> read(String slug) {
+        long h = hash(slug);
+        int lo = 0, hi = count - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long k = map.getLong(8 + mid * ENTRY);
+            if (k < h) lo = mid + 1;
+            else hi = mid - 1;
+        }
+        for (int i = lo; i < count && map.getLong(8 + i * ENTRY) == h; i++) {
+            long offset = map.getLong(8 + i * ENTRY + 8);
+            int length = map.getInt(8 + i * ENTRY + 16);
+            ByteBuffer rec = map.duplicate().position((int) offset).limit((int) (offset + length)).slice();
+            try {
+                DataInputStream in = new DataInputStream(new ByteBufferInput(rec));
+                if (!in.readUTF().equals(slug)) continue;
+                int n = in.readUnsignedShort();
+                List<Section> sections = new ArrayList<>(n);
+                for (int s = 0; s < n; s++) {
+                    String title = in.readUTF();
+                    byte[] text = new byte[in.readInt()];
+                    in.readFully(text);
+                    sections.add(new Section(title, new String(text, StandardCharsets.UTF_8)));
+                }
+                return Collections.unmodifiableList(sections);
+            } catch (IOException | RuntimeException ex) {
+                return Collections.emptyList();  // a damaged record reads as no profile
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static long hash(String slug) {
+        long h = 1125899906842597L;
+        for (int i = 0; i < slug.length(); i++) h = 31 * h + slug.charAt(i);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        return h ^ (h >>> 33);
+    }
+
+    /** Reads a ByteBuffer as a stream, so records decode with DataInputStream. */
+    private static final class ByteBufferInput extends InputStream {
+        private final ByteBuffer buf;
+
+        ByteBufferInput(ByteBuffer buf) {
+            this.buf = buf;
+        }
+
+        @Override
+        public int read() {
+            return buf.hasRemaining() ? buf.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buf.hasRemaining()) return -1;
+            int n = Math.min(len, buf.remaining());
+            buf.get(b, off, n);
+            return n;
+        }
+    }
+
+    // ── Packing ──────────────────────────────────────────────────────────────
+
+    /** Packs every *.txt in a directory into a store; returns the profile count. */
+    public static int pack(Path dir, Path out) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, "*.txt")) {
+            for (Path p : ds) files.add(p);
+        }
+        long[][] index = new long[files.size()][];
+        Path tmp = out.resolveSibling(out.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                               StandardOpenOption.TRUNCATE_EXISTING)) {
+            long pos = 8L + (long) files.size() * ENTRY;  // records follow the index, written last
+            for (int i = 0; i < files.size(); i++) {
+                String name = files.get(i).getFileName().toString();
+                String slug = Headshots.slug(name.substring(0, name.length() - 4));
+                byte[] rec = record(slug, Files.readAllLines(files.get(i), StandardCharsets.UTF_8));
+                if (pos + rec.length > Integer.MAX_VALUE) throw new IOException("profiles over 2 GB are not supported");
+                ByteBuffer buf = ByteBuffer.wrap(rec);
+                while (buf.hasRemaining()) ch.write(buf, pos + buf.position());
+                index[i] = new long[] { hash(slug), pos, rec.length };
+                pos += rec.length;
+            }
+            Arrays.sort(index, (a, b) -> Long.compare(a[0], b[0]));
+            ByteBuffer head = ByteBuffer.allocate(8 + index.length * ENTRY);
+            head.putInt(MAGIC).putInt(index.length);
+            for (long[] e : index) head.putLong(e[0]).putLong(e[1]).putInt((int) e[2]);
+            head.flip();
+            while (head.hasRemaining()) ch.write(head, head.position());
+        }
+        Files.move(tmp, out, StandardCopyOption.REPLACE_EXISTING);
+        return files.size();
+    }
+
+    /** One profile record from the lines of its text file. */
+    private static byte[] record(String slug, List<String> lines) throws IOException {
+        List<String> titles = new ArrayList<>();
+        List<StringBuilder> texts = new ArrayList<>();
+        for (String line : lines) {
+            if (line.startsWith("## ")) {
+                titles.add(line.substring(3).trim());
+                texts.add(new StringBuilder());
+            } else {
+                if (titles.isEmpty()) {
+                    if (line.isBlank()) continue;
+                    titles.add("Profile");
+                    texts.add(new StringBuilder());
+                }
+                texts.get(texts.size() - 1).append(line).append('\n');
+            }
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeUTF(slug);
+        out.writeShort(titles.size());
+        for (int s = 0; s < titles.size(); s++) {
+            byte[] text = texts.get(s).toString().strip().getBytes(StandardCharsets.UTF_8);
+            out.writeUTF(titles.get(s));
+            out.writeInt(text.length);
+            out.write(text);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: java PlayerProfiles <profiles dir> <profiles.dat>");
+            System.exit(2);
+        }
+        int n = pack(Paths.get(args[0]), Paths.get(args[1]));
+        System.out.println("Packed " + n + " profiles into " + args[1]);
+    }
+}
@@ -0,0 +1,420 @@
+import java.io.IOException;
+import java.util.*;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Typo-tolerant roster search. Each word of the query has to match a word of
+ * the player's name or position, or the jersey number; matches are ranked
+ *
+ *   exact word  >  word prefix  >  inside a word  >  within 1-2 typos
+ *
+ * and a player's score is the sum over the query words. Typos are counted as
+ * edits (insert, delete, replace, or swap two neighbours, so "Hurst" finds
+ * "Hurts"); words of up to 4 letters allow one, longer words two.
+ *
+ * The index is built once per roster and then kept up to date with add()
+ * and remove() as players are signed, cut or changed. Words are stored once however many
+ * players share them, with the players that have each, and every word is
+ * listed under its three-letter pieces ("$hu", "hur", "urt", "rts", "ts$").
+ * A query word only looks at roster words that share enough of its pieces
+ * to be within reach, so a keystroke never measures edit distance against
+ * the whole league.
+ *
+ * For a league kept in PlayerPages the index is built by reading each record
+ * once, and keeps only the words and numbers: rank() then gives matches as
+ * record numbers, and only the rows shown are read back.
+ *
+ *   java PlayerSearch [players]   times keystrokes on a league made from the default roster
+ */
+public final class PlayerSearch {
+
+    // Per query word; a player keeps the best of its words' scores
+    private static final int EXACT = 100, PREFIX = 80, INSIDE = 60, TYPO = 50, TYPO_PREFIX = 40;
+
+    // Players by slot; a removed player's slot stays, as null, so the others keep theirs,
+    // until add() reuses it. Null for an index over a PlayerPages store, which keeps no players.
+    private final List<Map<String, String>> players;
+    private final Map<Map<String, String>, Integer> slots = new IdentityHashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();  // last freed on top
+    private final List<String> words = new ArrayList<>();       // distinct lower-case name and position words
+    private final Map<String, Integer> wordIds = new HashMap<>();
+    private final List<int[]> wordPlayers = new ArrayList<>();  // players having each word
+    private final Map<Long, int[]> grams = new HashMap<>();     // trigram -> words containing it
+    private final Map<String, int[]> numbers = new HashMap<>();
+
+    // Scratch space reused by every query (the index is used on one thread)
+    private int[] shared;
+    private int[] wordScore, total, matched;
+
+    public PlayerSearch(List<Map<String, String>> players) {
+        this(players.size(), players::get, new ArrayList<>(players));
+    }
+
+    /** An index over count players read one at a time, e.g. PlayerPages::get, that keeps none of them. */
+    public PlayerSearch(int count, IntFunction<Map<String, String>> source) {
+        this(count, source, null);
+    }
+
+    private PlayerSearch(int count, IntFunction<Map<String, String>> source, List<Map<String, String>> kept) {
+        this.players = kept;
+        Map<String, List<Integer>> byWord = new LinkedHashMap<>();
+        Map<String, List<Integer>> byNumber = new HashMap<>();
+        for (int p = 0; p < count; p++) {
+            Map<String, String> player = source.apply(p);
+            for (String w : split(text(player))) {
+                List<Integer> list = byWord.computeIfAbsent(w, k -> new ArrayList<>());
+                if (list.isEmpty() || list.get(list.size() - 1) != p) list.add(p);
+            }
+            String number = number(player);
+            if (number != null) byNumber.computeIfAbsent(number, k -> new ArrayList<>()).add(p);
+        }
+
+        words.addAll(byWord.keySet());
+        Map<Long, List<Integer>> gramWords = new HashMap<>();
+        for (int w = 0; w < words.size(); w++) {
+            wordIds.put(words.get(w), w);
+            wordPlayers.add(toArray(byWord.get(words.get(w))));
+            for (long g : trigrams(words.get(w))) {
+                List<Integer> list = gramWords.computeIfAbsent(g, k -> new ArrayList<>());
+                if (list.isEmpty() || list.get(list.size() - 1) != w) list.add(w);
+            }
+        }
+        gramWords.forEach((g, list) -> grams.put(g, toArray(list)));
+        byNumber.forEach((n, list) -> numbers.put(n, toArray(list)));
+
+        if (kept != null) {
+            for (int p = 0; p < count; p++) slots.put(kept.get(p), p);
+        }
+        shared = new int[words.size()];
+        wordScore = new int[count];
+        total = new int[count];
+        matched = new int[count];
+    }
+
+    /** The slot a player's matches are reported at in search(query, hits); -1 if not indexed. */
+    public int slot(Map<String, String> player) {
+        return slots.getOrDefault(player, -1);
+    }
+
+    /**
+     * Indexes a new player (or one changed after remove()); returns its slot.
+     * That is the slot remove() freed last, if any, so a changed player
+     * keeps theirs and the slots only grow with the roster.
+     */
+    public int add(Map<String, String> player) {
+        if (players == null) throw new UnsupportedOperationException("an index over a page store is read-only");
+        Integer free = freeSlots.pollFirst();
+        int p;
+        if (free != null) {
+            p = free;
+            players.set(p, player);
+        } else {
+            p = players.size();
+            players.add(player);
+            wordScore = Arrays.copyOf(wordScore, p + 1);
+            total = Arrays.copyOf(total, p + 1);
+            matched = Arrays.copyOf(matched, p + 1);
+        }
+        slots.put(player, p);
+
+        for (String w : new LinkedHashSet<>(Arrays.asList(split(text(player))))) {
+            Integer id = wordIds.get(w);
+            if (id == null) {
+                id = words.size();
+                words.add(w);
+                wordIds.put(w, id);
+                wordPlayers.add(new int[0]);
+                for (long g : new LinkedHashSet<>(toList(trigrams(w)))) grams.merge(g, new int[] { id }, PlayerSearch::concat);
+                shared = Arrays.copyOf(shared, words.size());
+            }
+            wordPlayers.set(id, concat(wordPlayers.get(id), new int[] { p }));
+        }
+        String number = number(player);
+        if (number != null) numbers.merge(number, new int[] { p }, PlayerSearch::concat);
+        return p;
+    }
+
+    /** Drops a player from the index; returns the slot it had, or -1. Words no one has any more stay, unused. */
+    public int remove(Map<String, String> player) {
+        if (players == null) throw new UnsupportedOperationException("an index over a page store is read-only");
+        Integer p = slots.remove(player);
+        if (p == null) return -1;
+        players.set(p, null);
+        for (String w : split(text(player))) {
+            Integer id = wordIds.get(w);
+            if (id != null) wordPlayers.set(id, without(wordPlayers.get(id), p));
+        }
+        String number = number(player);
+        if (number != null) numbers.computeIfPresent(number, (k, ps) -> without(ps, p));
+        freeSlots.addFirst(p);
+        return p;
+    }
+
+    /** Players matching every word of the query, best first; all players for a blank query. */
+    public List<Map<String, String>> search(String query) {
+        return search(query, null);
+    }
+
+    /** Like search(query), also setting the roster indexes of the matches in hits if given. */
+    public List<Map<String, String>> search(String query, BitSet hits) {
+        if (players == null) throw new IllegalStateException("an index over a page store has no players; use rank()");
+        int[] ranked = rank(query, hits);
+        List<Map<String, String>> out = new ArrayList<>(ranked.length);
+        for (int p : ranked) out.add(players.get(p));
+        return out;
+    }
+
+    /** The slots (record numbers) of the players search() would give, in the same order. */
+    public int[] rank(String query, BitSet hits) {
+        String[] terms = split(query);
+        if (hits != null) hits.clear();
+        if (terms.length == 0) {
+            int[] all = new int[total.length];
+            int n = 0;
+            for (int p = 0; p < total.length; p++) {
+                if (players != null && players.get(p) == null) continue;
+                all[n++] = p;
+                if (hits != null) hits.set(p);
+            }
+            return Arrays.copyOf(all, n);
+        }
+
+        Arrays.fill(total, 0);
+        Arrays.fill(matched, 0);
+        for (String term : terms) {
+            Arrays.fill(wordScore, 0);
+            int[] numbered = numbers.get(term);
+            if (numbered != null) {
+                for (int p : numbered) wordScore[p] = EXACT;
+            }
+            matchWords(term);
+            for (int p = 0; p < wordScore.length; p++) {
+                if (wordScore[p] > 0) {
+                    total[p] += wordScore[p];
+                    matched[p]++;
+                }
+            }
+        }
+
+        // Sort (score descending, then roster order) as packed longs, without boxing
+        long[] found = new long[matched.length];
+        int n = 0;
+        for (int p = 0; p < matched.length; p++) {
+            if (matched[p] == terms.length) found[n++] = ((long) (Integer.MAX_VALUE - total[p]) << 32) | p;
+        }
+        Arrays.sort(found, 0, n);
+        int[] out = new int[n];
+        for (int i = 0; i < n; i++) {
+            out[i] = (int) found[i];
+            if (hits != null) hits.set(out[i]);
+        }
+        return out;
+    }
+
+    /** Scores every roster word against one query word into wordScore. */
+    private void matchWords(String term) {
+        if (term.length() < 3) {
+            // Too short to have a trigram or allow a typo: plain substring test
+            for (int w = 0; w < words.size(); w++) credit(w, plainScore(term, words.get(w)));
+            return;
+        }
+        int maxEdits = term.length() <= 4 ? 1 : 2;
+        long[] pieces = trigrams(term);
+        // An edit spoils at most 3 trigrams, a swap of neighbours 4, and a word
+        // still being typed also lacks the query's closing "x$" piece; a
+        // reachable word shares the rest
+        int needed = Math.max(1, pieces.length - 4 * maxEdits - 1);
+        List<Integer> candidates = new ArrayList<>();
+        for (long g : pieces) {
+            int[] ws = grams.get(g);
+            if (ws == null) continue;
+            for (int w : ws) {
+                if (shared[w]++ == 0) candidates.add(w);
+            }
+        }
+        for (int w : candidates) {
+            if (shared[w] >= needed) credit(w, score(term, words.get(w), maxEdits));
+            shared[w] = 0;
+        }
+    }
+
+    private void credit(int word, int score) {
+        if (score <= 0) return;
+        for (int p : wordPlayers.get(word)) wordScore[p] = Math.max(wordScore[p], score);
+    }
+
+    private static int plainScore(String term, String word) {
+        if (word.equals(term)) return EXACT;
+        if (word.startsWith(term)) return PREFIX;
+        return word.contains(term) ? INSIDE : 0;
+    }
+
+    private static int score(String term, String word, int maxEdits) {
+        int plain = plainScore(term, word);
+        if (plain > 0) return plain;
+        if (Math.abs(word.length() - term.length()) <= maxEdits) {
+            int d = distance(term, word, maxEdits);
+            if (d <= maxEdits) return TYPO - 10 * d;
+        }
+        if (word.length() > term.length()) {
+            // Still typing: compare with the start of the word
+            int d = distance(term, word.substring(0, term.length()), maxEdits);
+            if (d <= maxEdits) return TYPO_PREFIX - 10 * d;
+        }
+        return 0;
+    }
+
+    /**
+     * Edits between a and b, counting a swap of neighbours as one (optimal
+     * string alignment). Gives up with max + 1 once every path costs more.
+     */
+    static int distance(String a, String b, int max) {
+        int n = a.length(), m = b.length();
+        int[] prev2 = new int[m + 1], prev = new int[m + 1], cur = new int[m + 1];
+        for (int j = 0; j <= m; j++) prev[j] = j;
+        for (int i = 1; i <= n; i++) {
+            cur[0] = i;
+            int rowMin = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= m; j++) {
+                char cb = b.charAt(j - 1);
+                int d = Math.min(Math.min(prev[j] + 1, cur[j - 1] + 1), prev[j - 1] + (ca == cb ? 0 : 1));
+                if (i > 1 && j > 1 && ca == b.charAt(j - 2) && a.charAt(i - 2) == cb) {
+                    d = Math.min(d, prev2[j - 2] + 1);
+                }
+                cur[j] = d;
+                rowMin = Math.min(rowMin, d);
+            }
+            if (rowMin > max) return max + 1;
+            int[] t = prev2; prev2 = prev; prev = cur; cur = t;
+        }
+        return prev[m];
+    }
+
+    // ── Text ─────────────────────────────────────────────────────────────────
+
+    private static String text(Map<String, String> player) {
+        return player.getOrDefault("name", "") + " " + player.getOrDefault("position", "");
+    }
+
+    /** The jersey number if it is all digits, else null. */
+    private static String number(Map<String, String> player) {
+        String number = player.getOrDefault("number", "").trim();
+        return !number.isEmpty() && number.chars().allMatch(Character::isDigit) ? number : null;
+    }
+
+    /** Lower-case words; punctuation such as the dot in "A.J." is dropped. */
+    private static String[] split(String text) {
+        List<String> out = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toLowerCase(c));
+            } else if (Character.isWhitespace(c) || c == '-' || c == '/' || c == ',') {
+                if (sb.length() > 0) out.add(sb.toString());
+                sb.setLength(0);
+            }
+        }
+        return out.toArray(new String[0]);
+    }
+
+    /** Trigrams of "$word$", three chars packed into a long. */
+    private static long[] trigrams(String word) {
+        String s = "$" + word + "$";
+        long[] out = new long[s.length() - 2];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+        }
+        return out;
+    }
+
+    private static int[] concat(int[] a, int[] b) {
+        int[] out = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, out, a.length, b.length);
+        return out;
+    }
+
+    private static int[] without(int[] a, int x) {
+        int n = 0;
+        int[] out = new int[a.length];
+        for (int v : a) {
+            if (v != x) out[n++] = v;
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static List<Long> toList(long[] a) {
+        List<Long> out = new ArrayList<>(a.length);
+        for (long v : a) out.add(v);
+        return out;
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        int[] a = new int[list.size()];
+        for (int i = 0; i < a.length; i++) a[i] = list.get(i);
+        return a;
+    }
+
+    // ── Benchmark ────────────────────────────────────────────────────────────
+
+    public static void main(String[] args) throws IOException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 3000;
+
+        List<Map<String, String>> roster = new ArrayList<>();
+        List<String> first = new ArrayList<>(), last = new ArrayList<>(), positions = new ArrayList<>();
+        for (String[] r : DefaultRoster.load()) {
+            Map<String, String> p = new HashMap<>();
+            p.put("name", r[0]);
+            p.put("position", r[2]);
+            p.put("number", r[3]);
+            roster.add(p);
+            String[] parts = r[0].split(" ");
+            first.add(parts[0]);
+            last.add(parts[parts.length - 1]);
+            positions.add(r[2]);
+        }
+
+        // The real roster plus made-up players whose surnames splice two real ones
+        Random rnd = new Random(7);
+        List<Map<String, String>> league = new ArrayList<>(roster);
+        while (league.size() < size) {
+            String a = last.get(rnd.nextInt(last.size())), b = last.get(rnd.nextInt(last.size()));
+            Map<String, String> p = new HashMap<>();
+            p.put("name", first.get(rnd.nextInt(first.size())) + " "
+                + a.substring(0, (a.length() + 1) / 2) + b.substring(b.length() / 2).toLowerCase(Locale.ROOT));
+            p.put("position", positions.get(rnd.nextInt(positions.size())));
+            p.put("number", Integer.toString(rnd.nextInt(100)));
+            league.add(p);
+        }
+
+        long t0 = System.nanoTime();
+        PlayerSearch index = new PlayerSearch(league);
+        System.out.printf("Indexed %d players (%d words) in %d ms%n",
+            size, index.words.size(), (System.nanoTime() - t0) / 1_000_000);
+
+        // Every prefix of each query, as typed
+        String[] queries = { "Hurst", "jalen hrts", "Saquon Barkly", "Devonta Smiht", "quarterbak", "11" };
+        long[] times = new long[20_000];
+        int n = 0;
+        for (int round = 0; round < 200 && n < times.length; round++) {
+            for (String q : queries) {
+                for (int len = 1; len <= q.length() && n < times.length; len++) {
+                    long t = System.nanoTime();
+                    index.search(q.substring(0, len));
+                    if (round >= 20) times[n++] = System.nanoTime() - t;
+                }
+            }
+        }
+        Arrays.sort(times, 0, n);
+        System.out.printf("%d keystrokes: median %.1f us, p99 %.1f us, max %.1f us%n",
+            n, times[n / 2] / 1e3, times[n * 99 / 100] / 1e3, times[n - 1] / 1e3);
+        PlayerSearch team = new PlayerSearch(roster);
+        for (String q : queries) {
+            List<Map<String, String>> hits = team.search(q);
+            System.out.printf("  %-16s %3d on the roster, best: %s%n", q, hits.size(),
+                hits.isEmpty() ? "-" : hits.get(0).get("name") + " (" + hits.get(0).get("position") + ")");
+        }
+    }
+}
@@ -0,0 +1,156 @@
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * One version of the roster, never changed once made. Roster moves make a
+ * new version (copying the player array, which for a team is cheap) and the
+ * apps publish it through an AtomicReference, so any thread can take the
+ * current version and read it for as long as it likes without a lock:
+ * a writer never touches a version someone may be reading.
+ *
+ * Players are immutable maps too; an update replaces the player's map
+ * rather than changing it, so a player read from an old version keeps the
+ * values it had then, and "changed" is simply "not the same map".
+ *
+ *   java Roster [players] [readers]   time reads against a busy writer
+ */
+public final class Roster {
+
+    public static final Roster EMPTY = new Roster(0, List.of());
+
+    private final long version;
+    private final List<Map<String, String>> players;
+    private final Map<String, Integer> byName = new HashMap<>();
+
+    private Roster(long version, List<Map<String, String>> players) {
+        this.version = version;
+        this.players = players;
+        for (int i = 0; i < players.size(); i++) byName.putIfAbsent(key(players.get(i).getOrDefault("name", "")), i);
+    }
+
+    /** The first version of a roster, e.g. as read from team.csv. */
+    public static Roster of(List<Map<String, String>> players) {
+        List<Map<String, String>> copy = new ArrayList<>(players.size());
+        for (Map<String, String> p : players) copy.add(Map.copyOf(p));
+        return new Roster(1, Collections.unmodifiableList(copy));
+    }
+
+    /** Counts up by one with each batch of changes applied. */
+    public long version() {
+        return version;
+    }
+
+    /** The players, in team.csv order with signings at the end. Unmodifiable. */
+    public List<Map<String, String>> players() {
+        return players;
+    }
+
+    public int size() {
+        return players.size();
+    }
+
+    /** The player with this name, ignoring case, or null. */
+    public Map<String, String> find(String name) {
+        Integer i = byName.get(key(name));
+        return i == null ? null : players.get(i);
+    }
+
+    /**
+     * A new version with the changes applied; this one is left as it was.
+     * Applying the same changes again gives the same roster, so this is safe
+     * to retry, e.g. from AtomicReference.updateAndGet().
+     */
+    public Roster with(List<RosterChanges.Change> changes) {
+        if (changes.isEmpty()) return this;
+        List<Map<String, String>> next = new ArrayList<>(players);
+        Map<String, Integer> at = new HashMap<>(byName);
+        boolean cut = false;
+        for (RosterChanges.Change c : changes) {
+            String key = key(c.name);
+            Integer i = at.get(key);
+            switch (c.kind) {
+                case SIGN -> {
+                    if (i != null) {
+                        next.set(i, c.toPlayer());
+                    } else {
+                        at.put(key, next.size());
+                        next.add(c.toPlayer());
+                    }
+                }
+                case CUT -> {
+                    if (i != null) {
+                        next.set(i, null);  // dropped below, so the other positions hold meanwhile
+                        at.remove(key);
+                        cut = true;
+                    }
+                }
+                case UPDATE -> {
+                    if (i != null) next.set(i, c.updated(next.get(i)));
+                }
+            }
+        }
+        if (cut) next.removeIf(Objects::isNull);
+        return new Roster(version + 1, Collections.unmodifiableList(next));
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    // ── Benchmark ────────────────────────────────────────────────────────────
+
+    public static void main(String[] args) throws InterruptedException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int readers = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        List<Map<String, String>> start = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            start.add(Map.of("name", "Player " + i, "role", "Backup", "position", "Guard",
+                             "number", String.valueOf(i % 100), "type", i % 2 == 0 ? "Offense" : "Defense"));
+        }
+        AtomicReference<Roster> current = new AtomicReference<>(Roster.of(start));
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicLong reads = new AtomicLong(), torn = new AtomicLong();
+
+        // Each reader checks that a version never changes under it
+        List<Thread> threads = new ArrayList<>();
+        for (int r = 0; r < readers; r++) {
+            Thread t = new Thread(() -> {
+                long n = 0;
+                while (!done.get()) {
+                    Roster roster = current.get();
+                    int before = roster.size(), offense = 0;
+                    for (Map<String, String> p : roster.players()) {
+                        if ("Offense".equals(p.get("type"))) offense++;
+                    }
+                    if (roster.size() != before || offense > before) torn.incrementAndGet();
+                    n++;
+                }
+                reads.addAndGet(n);
+            });
+            t.start();
+            threads.add(t);
+        }
+
+        // One writer: sign, renumber and cut a player per batch
+        int batches = 20_000;
+        long t0 = System.nanoTime();
+        for (int b = 0; b < batches; b++) {
+            String name = "Rookie " + b;
+            List<RosterChanges.Change> changes = List.of(
+                new RosterChanges.Change(RosterChanges.Kind.SIGN, name, "1", "Backup", "Kicker", "Offense"),
+                new RosterChanges.Change(RosterChanges.Kind.UPDATE, name, "2", "", "", ""),
+                new RosterChanges.Change(RosterChanges.Kind.CUT, name, "", "", "", ""));
+            current.updateAndGet(r -> r.with(changes));
+        }
+        double seconds = (System.nanoTime() - t0) / 1e9;
+        done.set(true);
+        for (Thread t : threads) t.join();
+
+        System.out.printf("%d players, %d readers: %,d versions in %.2f s (%.1f us each), %,d reads, %d torn%n",
+                          size, readers, batches, seconds, seconds * 1e6 / batches, reads.get(), torn.get());
+        System.out.println("Final version " + current.get().version() + ", " + current.get().size() + " players");
+    }
+}
@@ -0,0 +1,218 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Roster moves (signings, cuts, number and position changes) recorded in
+ * roster-changes.csv instead of by editing team.csv. The roster apps load
+ * team.csv, apply the log on top, then follow the log while they run, so a
+ * move shows up in an open window without a restart.
+ *
+ * The log is only ever appended to. A change names the player it affects;
+ * applying the whole log again (Roster.with) gives the same roster (a
+ * signing replaces a player of the same name, cutting someone already gone
+ * does nothing), so a reader that loses its place can simply start over.
+ *
+ *   java RosterChanges sign "Name" Role Position Number Offense/Defense
+ *   java RosterChanges cut "Name"
+ *   java RosterChanges number "Name" 12
+ *   java RosterChanges position "Name" "Wide Receiver"
+ *   java RosterChanges role|type "Name" Value
+ */
+public final class RosterChanges {
+
+    public static final String HEADER = "Time,Change,Name,Number,Role,Position,Type";
+    public static final String FILE = "roster-changes.csv";
+
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    public enum Kind { SIGN, CUT, UPDATE }
+
+    /** One roster move. For an update, empty fields are left as they were. */
+    public static final class Change {
+        public final Kind kind;
+        public final String name, number, role, position, type;
+
+        public Change(Kind kind, String name, String number, String role, String position, String type) {
+            this.kind = kind;
+            this.name = name;
+            this.number = number;
+            this.role = role;
+            this.position = position;
+            this.type = type;
+        }
+
+        /** The signed player as a roster entry. */
+        public Map<String, String> toPlayer() {
+            return Map.of("name", name, "role", role, "position", position, "number", number, "type", type);
+        }
+
+        /** The player with this update's non-empty fields written in; the given map is left as it was. */
+        public Map<String, String> updated(Map<String, String> player) {
+            Map<String, String> next = new HashMap<>(player);
+            if (!number.isEmpty())   next.put("number", number);
+            if (!role.isEmpty())     next.put("role", role);
+            if (!position.isEmpty()) next.put("position", position);
+            if (!type.isEmpty())     next.put("type", type);
+            return Map.copyOf(next);
+        }
+    }
+
+    private final Path file;
+    private long offset;  // bytes already handed out by readNew()
+    private Thread watcher;
+
+    public RosterChanges(String filename) {
+        this.file = Paths.get(filename);
+    }
+
+    // ── Reading ──────────────────────────────────────────────────────────────
+
+    /**
+     * Changes logged since the last call; the first call returns the whole
+     * log. A line still being written is left for the next call. If the log
+     * was replaced by a shorter one it is read again from the start.
+     */
+    public synchronized List<Change> readNew() throws IOException {
+        List<Change> out = new ArrayList<>();
+        if (!Files.exists(file)) return out;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < offset) offset = 0;
+            if (size == offset) return out;
+            ByteBuffer buf = ByteBuffer.allocate((int) Math.min(Integer.MAX_VALUE - 8, size - offset));
+            while (buf.hasRemaining() && ch.read(buf, offset + buf.position()) > 0) { }
+            byte[] arr = buf.array();
+            int end = buf.position();
+            while (end > 0 && arr[end - 1] != '\n') end--;  // only whole lines
+
+            Csv.ByteCursor row = new Csv.ByteCursor();
+            int start = 0;
+            for (int i = 0; i < end; i++) {
+                if (arr[i] != '\n') continue;
+                Change c = parse(row.reset(arr, start, i), offset == 0 && start == 0);
+                if (c != null) out.add(c);
+                start = i + 1;
+            }
+            offset += end;
+        }
+        return out;
+    }
+
+    private static Change parse(Csv.ByteCursor row, boolean firstLine) {
+        if (row.fields() < 3 || firstLine && row.text(1).equals("Change")) return null;
+        Kind kind;
+        try {
+            kind = Kind.valueOf(row.text(1).toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            return null;  // a kind of change this version does not know
+        }
+        String[] f = new String[4];
+        for (int i = 0; i < 4; i++) f[i] = row.fields() > i + 3 ? row.text(i + 3) : "";
+        String name = row.text(2);
+        return name.isEmpty() ? null : new Change(kind, name, f[0], f[1], f[2], f[3]);
+    }
+
+    /**
+     * Starts a daemon thread that passes each batch of new changes to the
+     * consumer (on that thread) whenever the log grows. Changes logged
+     * between the last readNew() and the watch starting are passed first.
+     */
+    public synchronized void startWatching(Consumer<List<Change>> consumer) throws IOException {
+        if (watcher != null) return;
+        Path dir = file.toAbsolutePath().getParent();
+        Path name = file.getFileName();
+        WatchService ws = dir.getFileSystem().newWatchService();
+        dir.register(ws, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+        watcher = new Thread(() -> {
+            try {
+                deliverNew(consumer);  // registered now, so nothing logged from here on is missed
+                while (true) {
+                    WatchKey key = ws.take();
+                    boolean changed = false;
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                                || name.equals(event.context())) {
+                            changed = true;
+                        }
+                    }
+                    if (changed) deliverNew(consumer);
+                    if (!key.reset()) break;
+                }
+            } catch (InterruptedException ignored) {
+            } finally {
+                try { ws.close(); } catch (IOException ignored) {}
+            }
+        }, "watch-" + name);
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private void deliverNew(Consumer<List<Change>> consumer) {
+        try {
+            List<Change> changes = readNew();
+            if (!changes.isEmpty()) consumer.accept(changes);
+        } catch (IOException ex) {
+            System.err.println("Could not read " + file.getFileName() + ": " + ex.getMessage());
+        }
+    }
+
+    // ── Writing ──────────────────────────────────────────────────────────────
+
+    /** Appends one change, with the header first if the log is new. */
+    public void append(Change c) throws IOException {
+        String line = new Csv.Writer().field(LocalDateTime.now().format(STAMP)).field(c.kind.name())
+            .field(c.name).field(c.number).field(c.role).field(c.position).field(c.type).takeRow();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            FileLock lock = ch.lock();
+            try {
+                StringBuilder text = new StringBuilder();
+                if (ch.size() == 0) text.append(HEADER).append(System.lineSeparator());
+                text.append(line).append(System.lineSeparator());
+                ByteBuffer bytes = StandardCharsets.UTF_8.encode(text.toString());
+                long end = ch.size();
+                while (bytes.hasRemaining()) end += ch.write(bytes, end);
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Change c = null;
+        String cmd = args.length > 1 ? args[0].toLowerCase(Locale.ROOT) : "";
+        switch (cmd) {
+            case "sign" -> {
+                if (args.length == 6) c = new Change(Kind.SIGN, args[1], args[4], args[2], args[3], args[5]);
+            }
+            case "cut" -> {
+                if (args.length == 2) c = new Change(Kind.CUT, args[1], "", "", "", "");
+            }
+            case "number", "role", "position", "type" -> {
+                if (args.length == 3) {
+                    String v = args[2];
+                    c = new Change(Kind.UPDATE, args[1], cmd.equals("number") ? v : "", cmd.equals("role") ? v : "",
+                                   cmd.equals("position") ? v : "", cmd.equals("type") ? v : "");
+                }
+            }
+            default -> { }
+        }
+        if (c == null) {
+            System.err.println("usage: java RosterChanges sign <name> <role> <position> <number> <type>");
+            System.err.println("       java RosterChanges cut <name>");
+            System.err.println("       java RosterChanges number|role|position|type <name> <value>");
+            System.exit(2);
+        }
+        new RosterChanges(FILE).append(c);
+        System.out.println("Logged " + c.kind.name().toLowerCase(Locale.ROOT) + " of " + c.name + " in " + FILE);
+    }
+}
@@ -0,0 +1,223 @@
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * A parsed copy of team.csv kept next to it as team.csv.snap, so a warm
+ * start maps one file and reads string indexes instead of splitting every
+ * line of the CSV again.
+ *
+ * The snapshot records the size, modification time and CRC-32C of the CSV
+ * it was made from, and is only used while all three still match; anything
+ * else (an edited CSV, a half-written or foreign file) reads as a miss and
+ * the caller parses the CSV as before. Like DefaultRoster.bin it is a string
+ * table plus rows of indexes into it, with int counts for large rosters:
+ *
+ *   int    magic "RSN1"
+ *   long   CSV size,  long CSV mtime (ms),  int CSV CRC-32C
+ *   int    string count,  then each string as int length + UTF-8 bytes
+ *   int    row count,     then COLUMNS string indexes per row (ints)
+ *
+ *   java RosterSnapshot [players]   times a parse against a snapshot read
+ */
+public final class RosterSnapshot {
+
+    public static final int COLUMNS = DefaultRoster.COLUMNS;
+
+    private static final int MAGIC = 0x52534E31;  // "RSN1"
+
+    private RosterSnapshot() {}
+
+    /** What a snapshot must have been made from to be used. */
+    public static final class Key {
+        final long size;
+        final long modified;
+        final int crc;
+
+        private Key(long size, long modified, int crc) {
+            this.size = size;
+            this.modified = modified;
+            this.crc = crc;
+        }
+
+        boolean matches(long size, long modified, int crc) {
+            return this.size == size && this.modified == modified && this.crc == crc;
+        }
+    }
+
+    /** The snapshot file kept for a CSV. */
+    public static Path pathFor(Path csv) {
+        return csv.resolveSibling(csv.getFileName() + ".snap");
+    }
+
+    /** Size, mtime and checksum of the CSV as it is now. */
+    public static Key key(Path csv) throws IOException {
+        long modified = Files.getLastModifiedTime(csv).toMillis();
+        try (FileChannel ch = FileChannel.open(csv, StandardOpenOption.READ)) {
+            long size = ch.size();
+            CRC32C crc = new CRC32C();
+            // Mapped in pieces so a very large file never needs one huge mapping
+            for (long pos = 0; pos < size; pos += Integer.MAX_VALUE) {
+                crc.update(ch.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(Integer.MAX_VALUE, size - pos)));
+            }
+            return new Key(size, modified, (int) crc.getValue());
+        }
+    }
+
+    /**
+     * The rows stored for the CSV, header excluded, or null if there is no
+     * snapshot or it was not made from the CSV with this key.
+     */
+    public static List<String[]> read(Path csv, Key key) {
+        Path snap = pathFor(csv);
+        if (!Files.isRegularFile(snap)) return null;
+        try (FileChannel ch = FileChannel.open(snap, StandardOpenOption.READ)) {
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            if (buf.getInt() != MAGIC || !key.matches(buf.getLong(), buf.getLong(), buf.getInt())) return null;
+
+            String[] strings = new String[buf.getInt()];
+            byte[] bytes = new byte[64];
+            for (int i = 0; i < strings.length; i++) {
+                int len = buf.getInt();
+                if (len > bytes.length) bytes = new byte[Math.max(len, bytes.length * 2)];
+                buf.get(bytes, 0, len);
+                strings[i] = new String(bytes, 0, len, StandardCharsets.UTF_8);
+            }
+            int count = buf.getInt();
+            if ((long) count * COLUMNS * 4 != buf.remaining()) return null;
+            List<String[]> rows = new ArrayList<>(count);
+            for (int r = 0; r < count; r++) {
+                String[] row = new String[COLUMNS];
+                for (int c = 0; c < COLUMNS; c++) row[c] = strings[buf.getInt()];
+                rows.add(row);
+            }
+            return rows;
+        } catch (IOException | BufferUnderflowException | IndexOutOfBoundsException
+                 | NegativeArraySizeException ex) {
+            return null;  // unreadable or damaged: same as no snapshot
+        }
+    }
+
+    /**
+     * Stores rows parsed from the CSV with this key. The file is written
+     * aside and moved into place, so a reader never sees half of it.
+     */
+    public static void write(Path csv, Key key, List<String[]> rows) throws IOException {
+        List<String> strings = new ArrayList<>();
+        Map<String, Integer> index = new HashMap<>();
+        int[] packed = new int[rows.size() * COLUMNS];
+        int n = 0;
+        for (String[] row : rows) {
+            for (int c = 0; c < COLUMNS; c++) {
+                packed[n++] = index.computeIfAbsent(row[c], k -> {
+                    strings.add(k);
+                    return strings.size() - 1;
+                });
+            }
+        }
+
+        Path snap = pathFor(csv);
+        Path tmp = snap.resolveSibling(snap.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeLong(key.size);
+            out.writeLong(key.modified);
+            out.writeInt(key.crc);
+            out.writeInt(strings.size());
+            for (String s : strings) {
+                byte[] b = s.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(b.length);
+                out.write(b);
+            }
+            out.writeInt(rows.size());
+            for (int i : packed) out.writeInt(i);
+        }
+        try {
+            Files.move(tmp, snap, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(tmp, snap, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * write() on a daemon thread. The snapshot only saves time, so a failure
+     * is reported on stderr and the next start parses the CSV again.
+     */
+    public static void writeInBackground(Path csv, Key key, List<String[]> rows) {
+        Thread t = new Thread(() -> {
+            try {
+                write(csv, key, rows);
+            } catch (IOException ex) {
+                System.err.println("Could not save " + pathFor(csv).getFileName() + ": " + ex.getMessage());
+            }
+        }, "snapshot-" + csv.getFileName());
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /** Reads a roster CSV (header first) as rows of COLUMNS trimmed fields. */
+    public static List<String[]> parseCsv(Path csv) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        Csv.RowCursor row = new Csv.RowCursor();
+        try (BufferedReader in = Files.newBufferedReader(csv)) {
+            in.readLine(); // header
+            String line;
+            while ((line = in.readLine()) != null) {
+                // Blank lines tokenize to a single empty field and are skipped here
+                if (row.reset(line).fields() < COLUMNS) continue;
+                String[] fields = new String[COLUMNS];
+                for (int c = 0; c < COLUMNS; c++) fields[c] = row.field(c).trim();
+                rows.add(fields);
+            }
+        }
+        return rows;
+    }
+
+    // ── Benchmark ────────────────────────────────────────────────────────────
+
+    public static void main(String[] args) throws IOException {
+        int size = args.length > 0 ? Integer.parseInt(args[0].replace("_", "").replace(",", "")) : 200_000;
+
+        // Multi-season league: the default roster repeated, numbered by season
+        List<String[]> base = DefaultRoster.load();
+        List<String[]> league = new ArrayList<>(size);
+        for (int i = 0; league.size() < size; i++) {
+            String[] r = base.get(i % base.size()).clone();
+            r[0] = r[0] + " (" + (1933 + i / base.size()) + ")";
+            league.add(r);
+        }
+        Path dir = Files.createTempDirectory("snapshot");
+        Path csv = dir.resolve("team.csv");
+        DefaultRoster.writeCsv(league, csv.toString());
+        System.out.printf("%,d players, %,d KB of CSV%n", size, Files.size(csv) / 1024);
+
+        Key key = key(csv);
+        write(csv, key, parseCsv(csv));
+        System.out.printf("Snapshot %,d KB%n", Files.size(pathFor(csv)) / 1024);
+        for (int round = 1; round <= 5; round++) {
+            long t0 = System.nanoTime();
+            int parsed = parseCsv(csv).size();
+            long t1 = System.nanoTime();
+            List<String[]> rows = read(csv, key(csv));
+            long t2 = System.nanoTime();
+            if (rows == null || rows.size() != parsed) throw new AssertionError("snapshot does not match the CSV");
+            System.out.printf("round %d  parse %6.1f ms   validate + read snapshot %6.1f ms%n",
+                round, (t1 - t0) / 1e6, (t2 - t1) / 1e6);
+        }
+
+        // A changed CSV must not be served from the old snapshot
+        Files.write(csv, "\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        System.out.println("After editing the CSV: " + (read(csv, key(csv)) == null ? "miss (ok)" : "HIT (wrong)"));
+
+        Files.delete(pathFor(csv));
+        Files.delete(csv);
+        Files.delete(dir);
+    }
+}
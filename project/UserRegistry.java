@@ -0,0 +1,461 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Everyone who has signed in, one entry per person, looked up by email (or
+ * by name when no email was given).
+ *
+ * userinfo.csv stays the log of sign-ins, one row appended per login in the
+ * format it always had. Once it holds COMPACT_AFTER rows (or one per known
+ * user, if there are more users than that) the log is folded into
+ * userinfo.csv.snap, one record per user with their first and last login
+ * and a login count, and the log is moved aside as userinfo.csv.1, .2, ...
+ * so the sign-in history is kept; the next login starts a new one. Opening
+ * the registry reads the snapshot and the rows logged since, so it never
+ * grows with the number of sessions; a login is one hash lookup plus one
+ * appended row, and the rewrites, spread over the logins between them, stay
+ * constant per login.
+ *
+ * A Bloom filter over the known keys, saved with the snapshot, answers "is
+ * this someone new?" without touching the index: a miss is certain, and
+ * only a hit is confirmed in the map.
+ *
+ * Each change is made holding a lock on userinfo.csv.lock, after catching
+ * up with rows other running copies of the app have logged.
+ *
+ *   int    magic "USR2"
+ *   long   log bytes folded in,  int CRC-32C of those bytes
+ *   int    Bloom filter words,   then the words (longs)
+ *   int    user count,           then name, email, team, first, last and logins (long) each
+ *
+ * Text is an int byte length and the UTF-8 bytes, so no field is too long
+ * to save. "USR1" snapshots, written with writeUTF, are still read.
+ *
+ *   java UserRegistry [sessions]   times opening and logins after that many sign-ins
+ */
+public final class UserRegistry {
+
+    public static final String HEADER = "Name,Email,Favorite Team,Login Date/Time";
+    public static final int COMPACT_AFTER = 10_000;
+
+    private static final int MAGIC = 0x55535232;     // "USR2"
+    private static final int MAGIC_V1 = 0x55535231;  // "USR1", text by writeUTF
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /** One person's sign-ins. */
+    public static final class User {
+        public final String name, email, favoriteTeam, firstLogin, lastLogin;
+        public final long logins;
+
+        User(String name, String email, String favoriteTeam, String firstLogin, String lastLogin, long logins) {
+            this.name = name;
+            this.email = email;
+            this.favoriteTeam = favoriteTeam;
+            this.firstLogin = firstLogin;
+            this.lastLogin = lastLogin;
+            this.logins = logins;
+        }
+
+        /** This user after one more sign-in, with the details given then. */
+        User next(String name, String email, String favoriteTeam, String at) {
+            return new User(name, email, favoriteTeam, firstLogin, at, logins + 1);
+        }
+    }
+
+    private final Path log, snapshot, lockFile;
+    private final Map<String, User> users = new HashMap<>();
+    private Bloom bloom = new Bloom(0);
+    private long logOffset;        // bytes of the log already in the index
+    private int rowsSinceSnapshot;
+    private FileTime snapshotTime; // to notice another copy compacting
+
+    private UserRegistry(String filename) {
+        log = Paths.get(filename);
+        snapshot = Paths.get(filename + ".snap");
+        lockFile = Paths.get(filename + ".lock");
+    }
+
+    /** Reads the snapshot and the log rows after it, compacting if they have piled up. */
+    public static UserRegistry open(String filename) throws IOException {
+        UserRegistry r = new UserRegistry(filename);
+        r.locked(() -> {
+            r.reload();
+            if (r.compactionDue()) r.compact();
+        });
+        return r;
+    }
+
+    // ── Lookups ──────────────────────────────────────────────────────────────
+
+    /** The user with this email (or, without one, this name); null if they never signed in. */
+    public synchronized User find(String name, String email) {
+        String key = key(name, email);
+        return bloom.mightContain(key) ? users.get(key) : null;
+    }
+
+    /** True if nobody has signed in with this email (or name); never touches the index. */
+    public synchronized boolean isNew(String name, String email) {
+        return !bloom.mightContain(key(name, email));
+    }
+
+    public synchronized int size() {
+        return users.size();
+    }
+
+    // ── Logging in ───────────────────────────────────────────────────────────
+
+    /** Logs a sign-in; returns the user as now recorded, with logins == 1 for someone new. */
+    public synchronized User login(String name, String email, String favoriteTeam) throws IOException {
+        String at = LocalDateTime.now().format(STAMP);
+        User[] out = new User[1];
+        locked(() -> {
+            catchUp();
+            try (FileChannel ch = FileChannel.open(log, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                StringBuilder text = new StringBuilder();
+                if (ch.size() == 0) text.append(HEADER).append(System.lineSeparator());
+                text.append(new Csv.Writer().field(name).field(email).field(favoriteTeam).field(at).takeRow())
+                    .append(System.lineSeparator());
+                ByteBuffer bytes = StandardCharsets.UTF_8.encode(text.toString());
+                long end = ch.size();
+                while (bytes.hasRemaining()) end += ch.write(bytes, end);
+                logOffset = end;
+            }
+            out[0] = record(name, email, favoriteTeam, at);
+            rowsSinceSnapshot++;
+            if (compactionDue()) compact();
+        });
+        return out[0];
+    }
+
+    private User record(String name, String email, String favoriteTeam, String at) {
+        String key = key(name, email);
+        User known = bloom.mightContain(key) ? users.get(key) : null;
+        User user = known == null ? new User(name, email, favoriteTeam, at, at, 1)
+                                  : known.next(name, email, favoriteTeam, at);
+        users.put(key, user);
+        if (known == null) {
+            if (!bloom.roomFor(users.size())) bloom = Bloom.of(users.keySet());
+            else bloom.add(key);
+        }
+        return user;
+    }
+
+    private static String key(String name, String email) {
+        String e = email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+        return e.isEmpty() ? "name:" + (name == null ? "" : name.trim().toLowerCase(Locale.ROOT)) : e;
+    }
+
+    // ── Files ────────────────────────────────────────────────────────────────
+
+    private interface Locked {
+        void run() throws IOException;
+    }
+
+    private void locked(Locked action) throws IOException {
+        try (FileChannel ch = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            FileLock lock = ch.lock();
+            try {
+                action.run();
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    /** Picks up rows logged by other copies of the app, or everything if one of them compacted. */
+    private void catchUp() throws IOException {
+        long size = Files.exists(log) ? Files.size(log) : 0;
+        FileTime snap = Files.exists(snapshot) ? Files.getLastModifiedTime(snapshot) : null;
+        if (size < logOffset || !Objects.equals(snap, snapshotTime)) {
+            reload();
+        } else if (size > logOffset) {
+            replay(logOffset, size);
+        }
+    }
+
+    private void reload() throws IOException {
+        users.clear();
+        bloom = new Bloom(0);
+        logOffset = 0;
+        rowsSinceSnapshot = 0;
+        snapshotTime = Files.exists(snapshot) ? Files.getLastModifiedTime(snapshot) : null;
+        long logSize = Files.exists(log) ? Files.size(log) : 0;
+        if (snapshotTime != null) readSnapshot(logSize);
+        if (logSize > logOffset) replay(logOffset, logSize);
+        if (!bloom.roomFor(users.size())) bloom = Bloom.of(users.keySet());
+    }
+
+    /** Loads the users; logOffset is left where the log still holds rows the snapshot lacks. */
+    private void readSnapshot(long logSize) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+            int magic = in.readInt();
+            if (magic != MAGIC && magic != MAGIC_V1) {
+                throw new IOException(snapshot.getFileName() + " is not a user snapshot");
+            }
+            boolean v1 = magic == MAGIC_V1;
+            long covered = in.readLong();
+            int crc = in.readInt();
+            long[] words = new long[in.readInt()];
+            for (int i = 0; i < words.length; i++) words[i] = in.readLong();
+            bloom = new Bloom(words);
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                User u = new User(readText(in, v1), readText(in, v1), readText(in, v1),
+                                  readText(in, v1), readText(in, v1), in.readLong());
+                users.put(key(u.name, u.email), u);
+            }
+            // The log was moved aside after this snapshot was saved unless it still starts with the folded rows
+            logOffset = logSize >= covered && crc(covered) == crc ? covered : 0;
+        }
+    }
+
+    /** Adds the log rows in [from, to) to the index. */
+    private void replay(long from, long to) throws IOException {
+        try (InputStream raw = Files.newInputStream(log)) {
+            raw.skipNBytes(from);
+            BufferedReader in = new BufferedReader(new InputStreamReader(
+                new BoundedInput(raw, to - from), StandardCharsets.UTF_8));
+            Csv.RowCursor row = new Csv.RowCursor();
+            String line;
+            boolean first = from == 0;
+            while ((line = in.readLine()) != null) {
+                if (first) {
+                    first = false;
+                    if (line.startsWith("Name,")) continue;  // header
+                }
+                if (row.reset(line).fields() < 4) continue;
+                record(row.field(0), row.field(1), row.field(2), row.field(3));
+                rowsSinceSnapshot++;
+            }
+        }
+        logOffset = to;
+    }
+
+    private boolean compactionDue() {
+        return rowsSinceSnapshot >= Math.max(COMPACT_AFTER, users.size());
+    }
+
+    /** Saves every user to the snapshot, then moves the log aside as the next archive. */
+    private void compact() throws IOException {
+        long covered = Files.exists(log) ? Files.size(log) : 0;
+        bloom = Bloom.of(users.keySet());
+        Path tmp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeLong(covered);
+            out.writeInt(crc(covered));
+            out.writeInt(bloom.words.length);
+            for (long w : bloom.words) out.writeLong(w);
+            out.writeInt(users.size());
+            for (User u : users.values()) {
+                writeText(out, u.name);
+                writeText(out, u.email);
+                writeText(out, u.favoriteTeam);
+                writeText(out, u.firstLogin);
+                writeText(out, u.lastLogin);
+                out.writeLong(u.logins);
+            }
+        }
+        try {
+            Files.move(tmp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(tmp, snapshot, StandardCopyOption.REPLACE_EXISTING);
+        }
+        // A crash here leaves the log whole; readSnapshot() sees it still starts with the folded rows
+        if (covered > 0) {
+            List<Path> old = archives(log);
+            String last = old.isEmpty() ? "0" : suffix(old.get(old.size() - 1), log);
+            Path archive = log.resolveSibling(log.getFileName() + "." + (Long.parseLong(last) + 1));
+            try {
+                Files.move(log, archive, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(log, archive);
+            }
+        }
+        logOffset = 0;
+        rowsSinceSnapshot = 0;
+        snapshotTime = Files.getLastModifiedTime(snapshot);
+    }
+
+    private static void writeText(DataOutput out, String s) throws IOException {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readText(DataInput in, boolean v1) throws IOException {
+        if (v1) return in.readUTF();
+        int len = in.readInt();
+        if (len < 0) throw new IOException("bad text length " + len);
+        byte[] b = new byte[len];
+        in.readFully(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    /** The logs moved aside by compaction, oldest first: userinfo.csv.1, .2, ... */
+    public static List<Path> archives(Path log) throws IOException {
+        List<Path> out = new ArrayList<>();
+        Path dir = log.toAbsolutePath().getParent();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, log.getFileName() + ".*")) {
+            for (Path p : files) {
+                String n = suffix(p, log);
+                if (!n.isEmpty() && n.length() < 19 && n.chars().allMatch(Character::isDigit)) out.add(p);
+            }
+        }
+        out.sort(Comparator.comparingLong(p -> Long.parseLong(suffix(p, log))));
+        return out;
+    }
+
+    private static String suffix(Path archive, Path log) {
+        return archive.getFileName().toString().substring(log.getFileName().toString().length() + 1);
+    }
+
+    /** CRC-32C of the first n bytes of the log. */
+    private int crc(long n) throws IOException {
+        CRC32C crc = new CRC32C();
+        if (n == 0) return (int) crc.getValue();
+        try (FileChannel ch = FileChannel.open(log, StandardOpenOption.READ)) {
+            for (long pos = 0; pos < n; pos += Integer.MAX_VALUE) {
+                crc.update(ch.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(Integer.MAX_VALUE, n - pos)));
+            }
+        }
+        return (int) crc.getValue();
+    }
+
+    /** Stops a reader at the end of the bytes already checked, whatever is appended meanwhile. */
+    private static final class BoundedInput extends FilterInputStream {
+        private long left;
+
+        BoundedInput(InputStream in, long limit) {
+            super(in);
+            left = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (left <= 0) return -1;
+            int b = super.read();
+            if (b >= 0) left--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (left <= 0) return -1;
+            int n = super.read(b, off, (int) Math.min(len, left));
+            if (n > 0) left -= n;
+            return n;
+        }
+    }
+
+    // ── Bloom filter ─────────────────────────────────────────────────────────
+
+    /** About 1% false positives at up to one key per 10 bits; four probes from two hashes. */
+    private static final class Bloom {
+        private static final int BITS_PER_KEY = 10, PROBES = 4;
+        final long[] words;
+        private final int mask;
+
+        Bloom(int keys) {
+            this(new long[words(keys)]);
+        }
+
+        Bloom(long[] words) {
+            this.words = words;
+            this.mask = words.length * 64 - 1;
+        }
+
+        static Bloom of(Collection<String> keys) {
+            // Sized for twice as many keys, so it lasts until the next compaction
+            Bloom b = new Bloom(keys.size() * 2);
+            for (String k : keys) b.add(k);
+            return b;
+        }
+
+        private static int words(int keys) {
+            long bits = Math.max(1024, (long) keys * BITS_PER_KEY);
+            return (int) (Long.highestOneBit(bits - 1) << 1 >>> 6);  // power of two, for the mask
+        }
+
+        boolean roomFor(int keys) {
+            return (long) keys * BITS_PER_KEY <= words.length * 64L;
+        }
+
+        void add(String key) {
+            int h1 = key.hashCode(), h2 = mix(h1);
+            for (int i = 0; i < PROBES; i++) {
+                int bit = (h1 + i * h2) & mask;
+                words[bit >>> 6] |= 1L << bit;
+            }
+        }
+
+        boolean mightContain(String key) {
+            int h1 = key.hashCode(), h2 = mix(h1);
+            for (int i = 0; i < PROBES; i++) {
+                int bit = (h1 + i * h2) & mask;
+                if ((words[bit >>> 6] & (1L << bit)) == 0) return false;
+            }
+            return true;
+        }
+
+        private static int mix(int h) {
+            h ^= h >>> 16;
+            h *= 0x85ebca6b;
+            h ^= h >>> 13;
+            return h | 1;  // odd, so the probes differ
+        }
+    }
+
+    // ── Benchmark ────────────────────────────────────────────────────────────
+
+    public static void main(String[] args) throws IOException {
+        long sessions = args.length > 0 ? Long.parseLong(args[0].replace("_", "").replace(",", "")) : 1_000_000L;
+        int people = (int) Math.max(1, sessions / 20);
+
+        Path dir = Files.createTempDirectory("users");
+        String file = dir.resolve("userinfo.csv").toString();
+        Random rnd = new Random(1);
+        UserRegistry r = open(file);
+        long t0 = System.nanoTime();
+        long[] times = new long[(int) Math.min(sessions, 1_000_000)];
+        for (long s = 0; s < sessions; s++) {
+            int p = rnd.nextInt(people);
+            long t = System.nanoTime();
+            r.login("Fan " + p, "fan" + p + "@example.com", "Eagles");
+            times[(int) (s % times.length)] = System.nanoTime() - t;
+        }
+        long t1 = System.nanoTime();
+        Arrays.sort(times);
+        int n = times.length;
+        System.out.printf("%,d logins by %,d people in %.1f s: median %.1f us, p99 %.1f us%n",
+            sessions, r.size(), (t1 - t0) / 1e9, times[n / 2] / 1e3, times[n * 99 / 100] / 1e3);
+
+        long t2 = System.nanoTime();
+        UserRegistry again = open(file);
+        System.out.printf("Reopened with %,d users in %.1f ms (log %,d bytes, snapshot %,d bytes)%n",
+            again.size(), (System.nanoTime() - t2) / 1e6,
+            Files.exists(again.log) ? Files.size(again.log) : 0, Files.size(again.snapshot));
+
+        int misses = 0, probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (!again.isNew("Stranger " + i, "stranger" + i + "@example.com")) misses++;
+        }
+        User u = again.find("Fan 0", "FAN0@example.com");
+        System.out.printf("Bloom false positives %.2f%%; fan0 has %s logins%n",
+            100.0 * misses / probes, u == null ? "no" : Long.toString(u.logins));
+
+        for (Path p : archives(again.log)) Files.delete(p);
+        for (Path p : List.of(again.log, again.snapshot, again.lockFile)) Files.deleteIfExists(p);
+        Files.delete(dir);
+    }
+}
@@ -0,0 +1,436 @@
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * CSV reading and writing shared by the roster and estimator programs.
+ *
+ * Fields that contain a comma, a double quote or a line break are wrapped in
+ * double quotes, with quotes inside them doubled (RFC 4180). Input is read a
+ * line at a time, so a quoted line break is written correctly but not read
+ * back as one field.
+ *
+ *   RowCursor  splits one line (any CharSequence, e.g. a String or CharBuffer)
+ *              without allocating; a field becomes a String only when asked for
+ *   ByteCursor the same over UTF-8 bytes, for scanners that never decode lines
+ *   Writer     builds rows field by field and writes them through a buffer
+ */
+public final class Csv {
+
+    private Csv() {}
+
+    // Field kinds recorded by the cursors
+    private static final byte PLAIN   = 0;  // text as-is
+    private static final byte QUOTED  = 1;  // "text", nothing to unescape
+    private static final byte ESCAPED = 2;  // quoted with "" inside, or text after the closing quote
+
+    /** Splits one line into fields. */
+    public static String[] parse(String line) {
+        return new RowCursor().reset(line).toArray();
+    }
+
+    // ── Reading characters ───────────────────────────────────────────────────
+
+    /**
+     * Reusable tokenizer over one line. reset() records where each field
+     * starts and ends; nothing is copied until field() is called.
+     */
+    public static final class RowCursor {
+        private CharSequence line;
+        private int[]  bounds = new int[32];  // [2*i] start, [2*i+1] end of field i, raw
+        private byte[] kinds  = new byte[16];
+        private int    count;
+
+        public RowCursor reset(CharSequence line) {
+            this.line = line;
+            count = 0;
+            int n = line.length();
+            if (n > 0 && line.charAt(n - 1) == '\r') n--;
+            int i = 0;
+            while (true) {
+                int start = i;
+                byte kind = PLAIN;
+                if (i < n && line.charAt(i) == '"') {
+                    kind = QUOTED;
+                    i++;
+                    while (i < n) {
+                        if (line.charAt(i++) != '"') continue;
+                        if (i < n && line.charAt(i) == '"') {
+                            kind = ESCAPED;
+                            i++;
+                        } else {
+                            break;
+                        }
+                    }
+                    if (i < n && line.charAt(i) != ',') kind = ESCAPED;
+                }
+                while (i < n && line.charAt(i) != ',') i++;
+                add(start, i, kind);
+                if (i >= n) return this;
+                i++;  // past the comma; a trailing comma yields a final empty field
+            }
+        }
+
+        private void add(int start, int end, byte kind) {
+            if (count == kinds.length) {
+                kinds  = Arrays.copyOf(kinds, count * 2);
+                bounds = Arrays.copyOf(bounds, count * 4);
+            }
+            bounds[count * 2]     = start;
+            bounds[count * 2 + 1] = end;
+            kinds[count++] = kind;
+        }
+
+        public int fields() { return count; }
+
+        /** True for an empty or whitespace-only line. */
+        public boolean isBlank() {
+            if (count > 1) return false;
+            for (int i = bounds[0]; i < bounds[1]; i++) {
+                if (!Character.isWhitespace(line.charAt(i))) return false;
+            }
+            return true;
+        }
+
+        /** Field i with quotes removed and doubled quotes collapsed. */
+        public String field(int i) {
+            int from = bounds[i * 2], to = bounds[i * 2 + 1];
+            switch (kinds[i]) {
+                case PLAIN:
+                    return line.subSequence(from, to).toString();
+                case QUOTED:
+                    return line.subSequence(from + 1, line.charAt(to - 1) == '"' && to - 1 > from ? to - 1 : to).toString();
+                default:
+                    return unescape(line, from, to);
+            }
+        }
+
+        /** Field i, or the fallback if the line has fewer fields. */
+        public String field(int i, String fallback) {
+            return i < count ? field(i) : fallback;
+        }
+
+        /** The leading number in field i ("$1234.50" and "3 people" work), or NaN. */
+        public double number(int i) {
+            return leadingNumber(line, bounds[i * 2], bounds[i * 2 + 1]);
+        }
+
+        public String[] toArray() {
+            String[] out = new String[count];
+            for (int i = 0; i < count; i++) out[i] = field(i);
+            return out;
+        }
+    }
+
+    private static String unescape(CharSequence s, int from, int to) {
+        StringBuilder sb = new StringBuilder(to - from);
+        boolean inQuotes = false;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c != '"') {
+                sb.append(c);
+            } else if (inQuotes && i + 1 < to && s.charAt(i + 1) == '"') {
+                sb.append('"');
+                i++;
+            } else {
+                inQuotes = !inQuotes;
+            }
+        }
+        return sb.toString();
+    }
+
+    /** The first number in a display value such as "$1234.50" or "12.345 CY", or NaN. */
+    public static double leadingNumber(CharSequence s) {
+        return leadingNumber(s, 0, s.length());
+    }
+
+    private static double leadingNumber(CharSequence s, int from, int to) {
+        long digits = 0;
+        int scale = 0, count = 0;
+        boolean negative = false, fraction = false;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (count < 18) {
+                    digits = digits * 10 + (c - '0');
+                    if (fraction) scale++;
+                } else if (!fraction) {
+                    scale--;
+                }
+                count++;
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else if (c == '-' && count == 0) {
+                negative = true;
+            } else if (count > 0) {
+                break;  // unit suffix such as " CY" or " people"
+            }
+        }
+        if (count == 0) return Double.NaN;
+        double v = scale >= 0 ? digits / Math.pow(10, scale) : digits * Math.pow(10, -scale);
+        return negative ? -v : v;
+    }
+
+    // ── Reading bytes ────────────────────────────────────────────────────────
+
+    /**
+     * Like RowCursor, but over a range of a UTF-8 byte buffer. Delimiters are
+     * ASCII, so splitting needs no decoding; text() decodes a single field.
+     */
+    public static final class ByteCursor {
+        private byte[] buf;
+        private int[]  bounds = new int[32];
+        private byte[] kinds  = new byte[16];
+        private int    count;
+
+        public ByteCursor reset(byte[] buf, int from, int to) {
+            this.buf = buf;
+            count = 0;
+            if (to > from && buf[to - 1] == '\r') to--;
+            int i = from;
+            while (true) {
+                int start = i;
+                byte kind = PLAIN;
+                if (i < to && buf[i] == '"') {
+                    kind = QUOTED;
+                    i++;
+                    while (i < to) {
+                        if (buf[i++] != '"') continue;
+                        if (i < to && buf[i] == '"') {
+                            kind = ESCAPED;
+                            i++;
+                        } else {
+                            break;
+                        }
+                    }
+                    if (i < to && buf[i] != ',') kind = ESCAPED;
+                }
+                while (i < to && buf[i] != ',') i++;
+                if (count == kinds.length) {
+                    kinds  = Arrays.copyOf(kinds, count * 2);
+                    bounds = Arrays.copyOf(bounds, count * 4);
+                }
+                bounds[count * 2]     = start;
+                bounds[count * 2 + 1] = i;
+                kinds[count++] = kind;
+                if (i >= to) return this;
+                i++;
+            }
+        }
+
+        public int fields() { return count; }
+
+        public boolean isBlank() {
+            if (count > 1) return false;
+            for (int i = bounds[0]; i < bounds[1]; i++) {
+                if (buf[i] != ' ' && buf[i] != '\t') return false;
+            }
+            return true;
+        }
+
+        /** Field i decoded, with quotes removed and surrounding spaces trimmed. */
+        public String text(int i) {
+            int from = bounds[i * 2], to = bounds[i * 2 + 1];
+            if (kinds[i] == ESCAPED) {
+                return unescape(new String(buf, from, to - from, StandardCharsets.UTF_8), 0, to - from).trim();
+            }
+            if (kinds[i] == QUOTED) {
+                from++;
+                if (to > from && buf[to - 1] == '"') to--;
+            }
+            return new String(buf, from, to - from, StandardCharsets.UTF_8).trim();
+        }
+
+        /**
+         * A 64-bit hash of field i as text() would return it, ignoring ASCII
+         * case, computed from the bytes without decoding; for counting and
+         * sketching distinct values.
+         */
+        public long hash(int i) {
+            int from = bounds[i * 2], to = bounds[i * 2 + 1];
+            if (kinds[i] == ESCAPED) {
+                byte[] text = text(i).getBytes(StandardCharsets.UTF_8);
+                return hash(text, 0, text.length);
+            }
+            if (kinds[i] == QUOTED) {
+                from++;
+                if (to > from && buf[to - 1] == '"') to--;
+            }
+            while (from < to && buf[from] <= ' ') from++;
+            while (to > from && buf[to - 1] <= ' ') to--;
+            return hash(buf, from, to);
+        }
+
+        private static long hash(byte[] b, int from, int to) {
+            long h = 0xcbf29ce484222325L;  // FNV-1a, then a 64-bit finalizer to spread the bits
+            for (int p = from; p < to; p++) {
+                int c = b[p];
+                if (c >= 'A' && c <= 'Z') c += 'a' - 'A';
+                h = (h ^ (c & 0xff)) * 0x100000001b3L;
+            }
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            return h ^ (h >>> 33);
+        }
+
+        /** The leading number in field i, or NaN. */
+        public double number(int i) {
+            return number(i, false);
+        }
+
+        /** Field i as a plain number such as "-12.5", or NaN if it is anything else, e.g. has a unit. */
+        public double plainNumber(int i) {
+            return number(i, true);
+        }
+
+        private double number(int i, boolean plain) {
+            long digits = 0;
+            int scale = 0, n = 0;
+            boolean negative = false, fraction = false;
+            for (int p = bounds[i * 2]; p < bounds[i * 2 + 1]; p++) {
+                byte c = buf[p];
+                if (c >= '0' && c <= '9') {
+                    if (n < 18) {
+                        digits = digits * 10 + (c - '0');
+                        if (fraction) scale++;
+                    } else if (!fraction) {
+                        scale--;
+                    }
+                    n++;
+                } else if (c == '.' && !fraction) {
+                    fraction = true;
+                } else if (c == '-' && n == 0 && !(plain && (negative || fraction))) {
+                    negative = true;
+                } else if (plain) {
+                    return Double.NaN;
+                } else if (n > 0) {
+                    break;
+                }
+            }
+            if (n == 0) return Double.NaN;
+            double v = scale >= 0 ? digits / Math.pow(10, scale) : digits * Math.pow(10, -scale);
+            return negative ? -v : v;
+        }
+    }
+
+    // ── Writing ──────────────────────────────────────────────────────────────
+
+    /** A field as it should appear in a row: quoted only if it has to be. */
+    public static String escape(String value) {
+        if (value == null || value.isEmpty()) return "";
+        return needsQuotes(value) ? quote(value) : value;
+    }
+
+    /** A field always wrapped in quotes, with inner quotes doubled. */
+    public static String quote(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static boolean needsQuotes(String v) {
+        // indexOf is an intrinsic; four scans beat one charAt loop on short fields
+        return v.indexOf(',') >= 0 || v.indexOf('"') >= 0
+            || v.indexOf('\n') >= 0 || v.indexOf('\r') >= 0;
+    }
+
+    private static StringBuilder appendQuoted(StringBuilder sb, String v) {
+        sb.append('"');
+        for (int i = 0; i < v.length(); i++) {
+            char c = v.charAt(i);
+            if (c == '"') sb.append('"');
+            sb.append(c);
+        }
+        return sb.append('"');
+    }
+
+    /** Plain decimal text for a double: exact round-trip, never "1.0E7". */
+    public static String number(double v) {
+        if (Double.isNaN(v) || Double.isInfinite(v)) return "";
+        if (v == Math.rint(v) && Math.abs(v) < 1e15) return Long.toString((long) v);
+        return BigDecimal.valueOf(v).toPlainString();
+    }
+
+    /**
+     * Builds rows field by field. Rows go to the output through a buffer on
+     * endRow(); a Writer made without an output hands each row back from
+     * takeRow() instead, for callers that append single lines themselves.
+     */
+    public static final class Writer implements Closeable, Flushable {
+        private final java.io.Writer out;
+        private final StringBuilder row = new StringBuilder(256);
+        private boolean first = true;
+
+        public Writer() {
+            this.out = null;
+        }
+
+        public Writer(java.io.Writer out) {
+            this.out = out instanceof BufferedWriter ? out : new BufferedWriter(out, 64 * 1024);
+        }
+
+        private StringBuilder next() {
+            if (!first) row.append(',');
+            first = false;
+            return row;
+        }
+
+        /** A text field, quoted only if needed. */
+        public Writer field(String value) {
+            if (value != null && needsQuotes(value)) {
+                appendQuoted(next(), value);
+            } else {
+                next().append(value == null ? "" : value);
+            }
+            return this;
+        }
+
+        /** A text field, always quoted. */
+        public Writer quoted(String value) {
+            appendQuoted(next(), value == null ? "" : value);
+            return this;
+        }
+
+        public Writer field(long value) {
+            next().append(value);
+            return this;
+        }
+
+        public Writer field(double value) {
+            next().append(number(value));
+            return this;
+        }
+
+        /** Writes several text fields and ends the row (e.g. a header). */
+        public void row(String... fields) throws IOException {
+            for (String f : fields) field(f);
+            endRow();
+        }
+
+        public void endRow() throws IOException {
+            row.append(System.lineSeparator());
+            out.append(row);
+            row.setLength(0);
+            first = true;
+        }
+
+        /** Returns the row built so far, without a line separator, and starts a new one. */
+        public String takeRow() {
+            String s = row.toString();
+            row.setLength(0);
+            first = true;
+            return s;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (out != null) out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (out != null) out.close();
+        }
+    }
+}
@@ -3,8 +3,13 @@ import java.awt.event.*;
 import java.io.*;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 import javax.swing.*;
 import javax.swing.border.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 
 public class IndividualProject_MeikleDominic extends JFrame {
 
@@ -28,23 +33,34 @@ public class IndividualProject_MeikleDominic extends JFrame {
     private JLabel reinforcementLabel;
     private JLabel manpowerLabel;  // Number of employees
     private JLabel workHoursLabel; // Total work hours
+    private JLabel ratesLabel;     // region and rate table a quote was priced with
+    private JComboBox<String> regionBox;
 
     private static final String CSV_FILE = "Projects.csv";
     private static final String HOURS_CSV_FILE = "Hours.csv";
-    private static final String CSV_HEADER =
-        "Project Name,Location,Length (ft),Width (ft),Thickness (in),Employees,Area,Volume (CY),Manpower,Work Hours,Material Cost,Labor Cost,Reinforcement,Total Cost,Discount Badge,Discounted Total";
-    private static final String HOURS_CSV_HEADER = "Project Name,Manpower,Work Hours";
-
-    // ── Discount rules (name, threshold, unit, discountPct) ──────────────────
-    // Evaluated in order; only the single highest-pct match is applied.
-    private static final Object[][] DISCOUNT_RULES = {
-        // { display name,  threshold,  "cy"/"sqft"/"emp"/"in",  pct }
-        { "Large Volume (≥50 CY)",     50.0,  "cy",    15.0 },
-        { "Large Area (≥2000 sq ft)", 2000.0, "sqft",  10.0 },
-        { "Medium Volume (≥20 CY)",    20.0,  "cy",     8.0 },
-        { "Thick Slab (≥8 in)",         8.0,  "in",     7.0 },
-        { "Big Crew (≥6 employees)",    6.0,  "emp",    5.0 },
-    };
+    private static final String CSV_HEADER = ProjectRecord.HEADER;
+    private static final String HOURS_CSV_HEADER = ProjectRecord.HOURS_HEADER;
+
+    // Shared, lock-protected access to the CSV files (safe across processes)
+    private final ProjectStore store      = new ProjectStore(CSV_FILE, CSV_HEADER);
+    private final ProjectStore hoursStore = new ProjectStore(HOURS_CSV_FILE, HOURS_CSV_HEADER);
+
+    // Last calculated or loaded project; saved as-is, formatted only for display
+    private ProjectRecord current;
+    // Last decoded batch whose unreadable rows were already reported
+    private ProjectDecoder.Batch reportedBatch;
+
+    // Rate tables from Rates.csv, swapped whole whenever the file is saved
+    private final PricingStore pricing = new PricingStore("Rates.csv");
+    // Why the last edit of Rates.csv was rejected; null once a table loads
+    private String ratesProblem;
+
+    // Background file work; while any is running the footer shows its status
+    // and the project buttons are disabled
+    private final List<JButton> ioButtons = new ArrayList<>();
+    private JLabel footerNote;
+    private JProgressBar ioProgress;
+    private int ioPending;
 
     // ── Color palette (shared across the whole app) ───────────────────────────
     private static final Color BG         = new Color(28, 32, 40);
@@ -60,6 +76,35 @@ public class IndividualProject_MeikleDominic extends JFrame {
     private static final Color DISC_GOLD  = new Color(220, 170, 40);   // discount highlight
 
     public IndividualProject_MeikleDominic() {
+        // Create, migrate and load Projects.csv on the I/O pool while the
+        // window is being built, so the first Load finds the table ready
+        pricing.addListener(new PricingStore.Listener() {
+            @Override public void reloaded(PricingModel model) {
+                SwingUtilities.invokeLater(() -> showRegions(model));
+            }
+            @Override public void failed(String message) {
+                SwingUtilities.invokeLater(() -> {
+                    ratesProblem = message;
+                    if (ioPending == 0) footerNote.setText(rateNote());
+                });
+            }
+        });
+        CompletableFuture<Void> startup = ProjectStore.async(() -> {
+            // Rates first: the sample projects are priced with them
+            try {
+                pricing.load();
+            } catch (IOException ex) {
+                // Shown in the footer; quotes use the built-in rates meanwhile
+            }
+            pricing.startWatching();
+            ensureCSVExists();
+            // Keep the in-memory project table in step with the file so the
+            // Load/Delete dialogs open without re-reading Projects.csv
+            store.startWatching();
+            ProjectDecoder.batch(store);
+            return null;
+        });
+
         setTitle("Concrete Pour Cost Estimator");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLayout(new BorderLayout(200, 100));
@@ -86,8 +131,14 @@ public class IndividualProject_MeikleDominic extends JFrame {
         inputPanel2.add(Box.createVerticalStrut(6));
         addInputRow(inputPanel2, "Project Name:", projectNameField, TEXT_DIM, TEXT_LIGHT);
         addInputRow(inputPanel2, "Location:",     locationField,    TEXT_DIM, TEXT_LIGHT);
+        regionBox = new JComboBox<>(new String[] { PricingModel.DEFAULT_REGION });
+        regionBox.setFont(new Font("Arial", Font.PLAIN, 13));
+        regionBox.addActionListener(e -> {
+            if (ioPending == 0 && footerNote != null) footerNote.setText(rateNote());
+        });
+        addInputRow(inputPanel2, "Region:",       regionBox,        TEXT_DIM, TEXT_LIGHT);
 
-        // Save / Load / Delete buttons row inside PROJECT INFO
+        // Save / Load / Delete / Find buttons row inside PROJECT INFO
         JButton saveBtn = new JButton("SAVE PROJECT");
         styleSmallBtn(saveBtn, SAVE_GREEN, BG);
         saveBtn.addActionListener(e -> saveProject());
@@ -100,13 +151,24 @@ public class IndividualProject_MeikleDominic extends JFrame {
         styleSmallBtn(deleteBtn, DEL_RED, Color.WHITE);
         deleteBtn.addActionListener(e -> deleteProject());
 
-        JPanel saveBtnRow = new JPanel(new GridLayout(1, 3, 8, 0));
+        JButton findBtn = new JButton("FIND PROJECTS");
+        styleSmallBtn(findBtn, ACCENT, BG);
+        findBtn.addActionListener(e -> findProjects());
+
+        JButton repriceBtn = new JButton("REPRICE ALL");
+        styleSmallBtn(repriceBtn, DISC_GOLD, BG);
+        repriceBtn.addActionListener(e -> repriceAll());
+
+        JPanel saveBtnRow = new JPanel(new GridLayout(1, 5, 8, 0));
         saveBtnRow.setOpaque(false);
         saveBtnRow.setBorder(new EmptyBorder(6, 14, 12, 14));
         saveBtnRow.setMaximumSize(new Dimension(Integer.MAX_VALUE, 44));
         saveBtnRow.add(saveBtn);
         saveBtnRow.add(loadBtn);
         saveBtnRow.add(deleteBtn);
+        saveBtnRow.add(findBtn);
+        saveBtnRow.add(repriceBtn);
+        ioButtons.addAll(Arrays.asList(saveBtn, loadBtn, deleteBtn, findBtn, repriceBtn));
         inputPanel2.add(saveBtnRow);
 
         JPanel projectWrapper = new JPanel(new BorderLayout());
@@ -176,6 +238,7 @@ public class IndividualProject_MeikleDominic extends JFrame {
         matCostLabel  = createResultLabel(TEXT_DIM);
         laborCostLabel= createResultLabel(TEXT_DIM);
         reinforcementLabel = createResultLabel(TEXT_DIM);
+        ratesLabel    = createResultLabel(TEXT_DIM);
         totalCostLabel= createResultLabel(ACCENT);
         totalCostLabel.setFont(new Font("Arial", Font.BOLD, 13));
 
@@ -187,6 +250,7 @@ public class IndividualProject_MeikleDominic extends JFrame {
         addResultRow(outputPanel, "Material Cost:",   matCostLabel,   TEXT_DIM, TEXT_LIGHT);
         addResultRow(outputPanel, "Labor Cost:",      laborCostLabel, TEXT_DIM, TEXT_LIGHT);
         addResultRow(outputPanel, "Reinforcement:",      reinforcementLabel, TEXT_DIM, TEXT_LIGHT);
+        addResultRow(outputPanel, "Rates:",           ratesLabel,     TEXT_DIM, TEXT_LIGHT);
 
 
         // Divider
@@ -249,22 +313,23 @@ public class IndividualProject_MeikleDominic extends JFrame {
         JPanel footer = new JPanel();
         footer.setBackground(BG);
         footer.setBorder(new EmptyBorder(3, 0, 8, 0));
-        JLabel note = new JLabel("Material: $130/CY  ·  Labor: $21/hr/employee  ·  Reinforcement + Leveling  ·  +10% volume buffer  ·  Auto-discount applied");
-        note.setFont(new Font("Arial", Font.PLAIN, 10));
-        note.setForeground(TEXT_DIM);
-        footer.add(note);
+        footerNote = new JLabel(rateNote());
+        footerNote.setFont(new Font("Arial", Font.PLAIN, 10));
+        footerNote.setForeground(TEXT_DIM);
+        footer.add(footerNote);
+        ioProgress = new JProgressBar();
+        ioProgress.setIndeterminate(true);
+        ioProgress.setPreferredSize(new Dimension(60, 8));
+        ioProgress.setVisible(false);
+        footer.add(ioProgress);
         add(footer, BorderLayout.SOUTH);
 
         pack();
         setMinimumSize(new Dimension(680, 360));
         setLocationRelativeTo(null);
 
-        // ── Create CSV with presets immediately on startup ────────────────────
-        try {
-            ensureCSVExists();
-        } catch (IOException ex) {
-            showError("Could not initialize Projects.csv:\n" + ex.getMessage());
-        }
+        // ── Show the startup load in the footer until it is done ──────────────
+        track("Preparing Projects.csv…", "Could not initialize Projects.csv:", startup, ignored -> {});
     }
 
     // ── Helpers ──────────────────────────────────────────────────────────────
@@ -322,7 +387,7 @@ public class IndividualProject_MeikleDominic extends JFrame {
     }
 
     private void addInputRow(JPanel parent, String labelText,
-                            JTextField field, Color labelColor, Color fieldColor) {
+                            JComponent field, Color labelColor, Color fieldColor) {
         JPanel row = new JPanel(new BorderLayout(10, 0));
         row.setOpaque(false);
         row.setBorder(new EmptyBorder(5, 14, 5, 14));
@@ -432,10 +497,15 @@ public class IndividualProject_MeikleDominic extends JFrame {
     }
 
     /**
-     * Show a themed list-selection dialog. Returns the selected index, or -1.
+     * Show a themed project picker with a type-ahead search box.
+     * Returns the selected row's index in index.rows(), or -1.
+     *
+     * Labels are built only for the rows the list actually paints: the model
+     * formats a label on demand, and the prototype cell value stops JList from
+     * measuring every row up front.
      */
     private int showThemedListDialog(String message, String title,
-                                    String[] items, Color actionColor, String actionLabel) {
+                                    ProjectStore.NameIndex index, Color actionColor, String actionLabel) {
         JDialog dialog = new JDialog(this, title, true);
         dialog.setLayout(new BorderLayout());
         dialog.getContentPane().setBackground(BG);
@@ -445,11 +515,21 @@ public class IndividualProject_MeikleDominic extends JFrame {
         msg.setForeground(TEXT_DIM);
         msg.setFont(new Font("Arial", Font.PLAIN, 12));
         msg.setBorder(new EmptyBorder(14, 16, 8, 16));
-        dialog.add(msg, BorderLayout.NORTH);
+
+        JTextField searchField = createField(FIELD_BG, TEXT_LIGHT);
+        JPanel searchRow = new JPanel(new BorderLayout());
+        searchRow.setOpaque(false);
+        searchRow.setBorder(new EmptyBorder(0, 16, 8, 16));
+        searchRow.add(searchField, BorderLayout.CENTER);
+
+        JPanel north = new JPanel(new BorderLayout());
+        north.setBackground(BG);
+        north.add(msg, BorderLayout.NORTH);
+        north.add(searchRow, BorderLayout.CENTER);
+        dialog.add(north, BorderLayout.NORTH);
 
         // List
-        DefaultListModel<String> model = new DefaultListModel<>();
-        for (String item : items) model.addElement(item);
+        ProjectPickerModel model = new ProjectPickerModel(index.rows());
         JList<String> list = new JList<>(model);
         list.setBackground(FIELD_BG);
         list.setForeground(TEXT_LIGHT);
@@ -457,8 +537,25 @@ public class IndividualProject_MeikleDominic extends JFrame {
         list.setSelectionForeground(BG);
         list.setFont(new Font("Arial", Font.PLAIN, 13));
         list.setBorder(new EmptyBorder(4, 6, 4, 6));
+        list.setPrototypeCellValue("Parking Lot Section  —  Commercial");
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         list.setSelectedIndex(0);
 
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e)  { refilter(); }
+            public void removeUpdate(DocumentEvent e)  { refilter(); }
+            public void changedUpdate(DocumentEvent e) { refilter(); }
+            private void refilter() {
+                model.setView(index.search(searchField.getText()));
+                if (model.getSize() > 0) {
+                    list.setSelectedIndex(0);
+                    list.ensureIndexIsVisible(0);
+                } else {
+                    list.clearSelection();
+                }
+            }
+        });
+
         JScrollPane scroll = new JScrollPane(list);
         scroll.setBackground(FIELD_BG);
         scroll.setBorder(BorderFactory.createCompoundBorder(
@@ -478,20 +575,50 @@ public class IndividualProject_MeikleDominic extends JFrame {
 
         cancel.addActionListener(e -> dialog.dispose());
         action.addActionListener(e -> {
-            result[0] = list.getSelectedIndex();
+            int sel = list.getSelectedIndex();
+            result[0] = sel < 0 || sel >= model.getSize() ? -1 : model.rowAt(sel);
             dialog.dispose();
         });
+        searchField.addActionListener(e -> action.doClick());
 
         btnRow.add(cancel);
         btnRow.add(action);
         dialog.add(btnRow, BorderLayout.SOUTH);
 
-        dialog.setSize(380, 280);
+        dialog.setSize(380, 320);
         dialog.setLocationRelativeTo(this);
         dialog.setVisible(true);
         return result[0];
     }
 
+    /**
+     * List model over the saved projects that formats labels lazily.
+     * view holds the row indexes matching the search, or null for all rows.
+     */
+    private static class ProjectPickerModel extends AbstractListModel<String> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<String[]> rows;
+        private int[] view;
+
+        ProjectPickerModel(List<String[]> rows) { this.rows = rows; }
+
+        /** Replaces the rows shown; fired as a removal and an addition so the list drops its selection. */
+        void setView(int[] view) {
+            int old = getSize();
+            this.view = new int[0];
+            if (old > 0) fireIntervalRemoved(this, 0, old - 1);
+            this.view = view;
+            if (getSize() > 0) fireIntervalAdded(this, 0, getSize() - 1);
+        }
+
+        int rowAt(int i) { return view == null ? i : view[i]; }
+
+        @Override public int getSize() { return view == null ? rows.size() : view.length; }
+
+        @Override public String getElementAt(int i) { return projectLabel(rows.get(rowAt(i))); }
+    }
+
     private void showError(String msg) {
         showThemedDialog(msg, "Error", "error");
     }
@@ -510,82 +637,36 @@ public class IndividualProject_MeikleDominic extends JFrame {
                 return;
             }
 
-            double area   = length * width;
-            double vol    = area * (thickness / 12.0);
-            double volCY  = (vol * 1.10) / 27.0;
-
-            double rebar         = 1.30 * volCY;
-            double mesh          = 0.20 * volCY;
-            double reinforcement = rebar + mesh;
-
-
-            double leveling    = 2 * area;
-            double emplTimeEst = (volCY * 3.0) / employees;
-            double pourTime    = (volCY * 5.0) / 60.0;
-            double totTime     = emplTimeEst + pourTime + 1.0;
-
-            double matCost   = volCY * 130.0;
-            double laborCost = totTime * employees * 21.0;
-            double total     = matCost + laborCost + reinforcement+ leveling;
-
-            areaLabel.setText(String.format("%.2f sq ft", area));
-            volumeCYLabel.setText(String.format("%.3f CY", volCY));
-            manpowerLabel.setText(String.format("%d people", employees));
-            workHoursLabel.setText(String.format("%.2f hrs", totTime));
-            timeLabel.setText(String.format("%.2f hrs", totTime));
-            matCostLabel.setText(String.format("$%.2f", matCost));
-            laborCostLabel.setText(String.format("$%.2f", laborCost));
-            reinforcementLabel.setText(String.format("$%.2f", reinforcement));
-            totalCostLabel.setText(String.format("$%.2f", total));
-
-            // ── Evaluate discount rules; pick highest matching pct ────────────
-            String bestName = null;
-            double bestPct  = 0.0;
-
-            for (Object[] rule : DISCOUNT_RULES) {
-                String ruleName  = (String) rule[0];
-                double threshold = (Double) rule[1];
-                String unit      = (String) rule[2];
-                double pct       = (Double) rule[3];
-
-                double value;
-                switch (unit) {
-                    case "cy":    value = volCY;     break;
-                    case "sqft":  value = area;      break;
-                    case "emp":   value = employees; break;
-                    case "in":    value = thickness; break;
-                    default:      value = 0;         break;
-                }
-
-                if (value >= threshold && pct > bestPct) {
-                    bestPct  = pct;
-                    bestName = ruleName;
-                }
-            }
-
-            if (bestName != null) {
-                double savings        = total * (bestPct / 100.0);
-                double discountedTotal = total - savings;
-                discountBadgeLabel.setText(
-                    String.format("%s  (–%.0f%%)  saves $%.2f", bestName, bestPct, savings));
-                discountedTotalLabel.setText(String.format("$%.2f", discountedTotal));
-            } else {
-                discountBadgeLabel.setText("No discount applies");
-                discountedTotalLabel.setText("—");
-            }
-            // ─────────────────────────────────────────────────────────────────
+            PricingModel.Rates rates = pricing.current().rates((String) regionBox.getSelectedItem());
+            current = ProjectRecord.compute(rates, "", "", length, width, thickness, employees);
+            showResults(current);
 
         } catch (NumberFormatException ex) {
             showError("Please enter valid numbers in all fields.");
         }
     }
 
-    /**
-     * Returns a two-element array: [discountLabel, discountedTotal].
-     * Used when saving so the CSV captures the discount info.
-     */
-    private String[] currentDiscountStrings() {
-        return new String[]{ discountBadgeLabel.getText(), discountedTotalLabel.getText() };
+    /** Formats a project's results into the output labels. */
+    private void showResults(ProjectRecord r) {
+        areaLabel.setText(String.format("%.2f sq ft", r.area));
+        volumeCYLabel.setText(String.format("%.3f CY", r.volumeCY));
+        manpowerLabel.setText(String.format("%d people", r.employees));
+        workHoursLabel.setText(String.format("%.2f hrs", r.workHours));
+        timeLabel.setText(String.format("%.2f hrs", r.workHours));
+        matCostLabel.setText(String.format("$%.2f", r.materialCost));
+        laborCostLabel.setText(String.format("$%.2f", r.laborCost));
+        reinforcementLabel.setText(String.format("$%.2f", r.reinforcement));
+        totalCostLabel.setText(String.format("$%.2f", r.total));
+        ratesLabel.setText(r.region.isEmpty() ? "—" : r.region + "  (table " + r.rateVersion + ")");
+
+        if (r.hasDiscount()) {
+            discountBadgeLabel.setText(String.format("%s  (–%.0f%%)  saves $%.2f",
+                r.discountRule, r.discountPct, r.savings()));
+            discountedTotalLabel.setText(String.format("$%.2f", r.discountedTotal));
+        } else {
+            discountBadgeLabel.setText("No discount applies");
+            discountedTotalLabel.setText("—");
+        }
     }
 
     // ── CSV helpers ──────────────────────────────────────────────────────────
@@ -595,22 +676,13 @@ public class IndividualProject_MeikleDominic extends JFrame {
      * if it does not already exist.
      */
     private void ensureCSVExists() throws IOException {
-        File file = new File(CSV_FILE);
-
-        if (!file.exists()) {
-            File parent = file.getParentFile();
-            if (parent != null && !parent.exists()) {
-                parent.mkdirs();
-            }
-
-            try (PrintWriter pw = new PrintWriter(new FileWriter(file));
-                PrintWriter manpowerPw = new PrintWriter(new FileWriter(new File(HOURS_CSV_FILE)))) {
-                pw.println(CSV_HEADER);
+        // Hours.csv is re-seeded alongside Projects.csv, under both files' locks
+        store.ensureExists(pw -> hoursStore.withFileLock(false, () -> {
+            try (PrintWriter manpowerPw = new PrintWriter(new FileWriter(hoursStore.getFile()))) {
                 manpowerPw.println(HOURS_CSV_HEADER);
 
                 // ── Preset sample projects ──────────────────────────────────
-                // Each row: Name, Location, L, W, T(in), Emp,
-                //           Area, VolCY, Time, MatCost, LaborCost, Total
+                // Each row: Name, Location, L, W, T(in), Emp
                 writePreset(pw, manpowerPw, "Small Garage Slab",   "Residential",  20, 20,  4, 2);
                 writePreset(pw, manpowerPw, "Backyard Patio",       "Residential",  16, 12,  4, 2);
                 writePreset(pw, manpowerPw, "Driveway",             "Residential",  40, 12,  6, 3);
@@ -622,15 +694,15 @@ public class IndividualProject_MeikleDominic extends JFrame {
                 writePreset(pw, manpowerPw, "Pool Deck",            "Residential",  40, 15,  4, 3);
                 writePreset(pw, manpowerPw, "Basketball Court",     "Recreational", 84, 50,  4, 6);
             }
-        }
+            return null;
+        }));
 
         // Ensure hours.csv exists (in case it was deleted or something)
-        File hoursFile = new File(HOURS_CSV_FILE);
-        if (!hoursFile.exists()) {
-            try (PrintWriter pw = new PrintWriter(new FileWriter(hoursFile))) {
-                pw.println(HOURS_CSV_HEADER);
-            }
-        }
+        hoursStore.ensureExists(null);
+
+        // Files saved by older releases hold display strings; convert them once
+        ProjectMigration.migrate(store);
+        ProjectMigration.migrateHours(hoursStore);
     }
 
     /** Calculates derived fields and writes one preset CSV row. */
@@ -638,65 +710,12 @@ public class IndividualProject_MeikleDominic extends JFrame {
                             String name, String location,
                             double length, double width,
                             double thicknessIn, int employees) {
-        double area   = length * width;
-            double vol    = area * (thicknessIn / 12.0);
-            double volCY  = (vol * 1.10) / 27.0;
-
-            double rebar         = 1.30 * volCY;
-            double mesh          = 0.20 * volCY;
-            double reinforcement = rebar + mesh;
-
-
-            double leveling    = 2 * area;
-            double emplTimeEst = (volCY * 3.0) / employees;
-            double pourTime    = (volCY * 5.0) / 60.0;
-            double totTime     = emplTimeEst + pourTime + 1.0;
-
-            double matCost   = volCY * 130.0;
-            double laborCost = totTime * employees * 21.0;
-            double total     = matCost + laborCost + reinforcement+ leveling;
-
-        // Evaluate discount rules
-        String bestName = "No discount applies";
-        double bestPct  = 0.0;
-        for (Object[] rule : DISCOUNT_RULES) {
-            String ruleName  = (String) rule[0];
-            double threshold = (Double) rule[1];
-            String unit      = (String) rule[2];
-            double pct       = (Double) rule[3];
-            double value;
-            switch (unit) {
-                case "cy":   value = volCY;     break;
-                case "sqft": value = area;      break;
-                case "emp":  value = employees; break;
-                case "in":   value = thicknessIn; break;
-                default:     value = 0;         break;
-            }
-            if (value >= threshold && pct > bestPct) {
-                bestPct  = pct;
-                bestName = ruleName;
-            }
-        }
-        String discLabel;
-        String discTotal;
-        if (bestPct > 0) {
-            double savings = total * (bestPct / 100.0);
-            discLabel = String.format("%s  (--%.0f%%)  saves $%.2f", bestName, bestPct, savings);
-            discTotal = String.format("$%.2f", total - savings);
-        } else {
-            discLabel = bestName;
-            discTotal = "--";
-        }
-
-        pw.printf("\"%s\",\"%s\",%.0f,%.0f,%.0f,%d,%.2f sq ft,%.3f CY,%d,%.2f hrs,$%.2f,$%.2f,$%.2f,$%.2f,\"%s\",%s%n",
-            name, location,
-            length, width, thicknessIn, employees,
-            area, volCY, employees, totTime,
-            matCost, laborCost, reinforcement, total,
-            discLabel, discTotal);
+        ProjectRecord r = ProjectRecord.compute(pricing.current().rates(PricingModel.DEFAULT_REGION),
+            name, location, length, width, thicknessIn, employees);
+        pw.println(r.toCsv());
 
         // Also write to manpower CSV
-        manpowerPw.printf("\"%s\",%d people,%.2f hrs%n", name, employees, totTime);
+        manpowerPw.println(r.toHoursCsv());
     }
 
     // ── CSV Save ─────────────────────────────────────────────────────────────
@@ -715,220 +734,357 @@ public class IndividualProject_MeikleDominic extends JFrame {
             return;
         }
 
-        if (totalCostLabel.getText().equals("—")) {
+        if (current == null) {
             showError("Please calculate results before saving.");
             return;
         }
 
-        try {
+        File csv = store.getFile();
+        File hoursCsv = hoursStore.getFile();
+        ProjectRecord record = current.withProject(projectName, location);
+        runIO("Saving \"" + projectName + "\"…", "Could not write to Projects.csv:", () -> {
             ensureCSVExists();
-            File csv = new File(CSV_FILE);
-            String[] disc = currentDiscountStrings();
-            try (PrintWriter pw = new PrintWriter(new FileWriter(csv, true))) {
-                pw.printf("\"%s\",\"%s\",%s,%s,%s,%s,%s,%s,%s,%s,%s,%s,%s,%s,\"%s\",%s%n",
-                    projectName, location,
-                    length, width, thickness, employees,
-                    areaLabel.getText(),
-                    volumeCYLabel.getText(),
-                    manpowerLabel.getText(),
-                    workHoursLabel.getText(),
-                    matCostLabel.getText(),
-                    laborCostLabel.getText(),
-                    reinforcementLabel.getText(),
-                    totalCostLabel.getText(),
-                    disc[0], disc[1]
-                );
-            }
-
+            store.append(record.toCsv());
             // Also save to hours.csv
-            File hoursCsv = new File(HOURS_CSV_FILE);
-            try (PrintWriter pw = new PrintWriter(new FileWriter(hoursCsv, true))) {
-                pw.printf("\"%s\",%s,%s%n",
-                    projectName,
-                    manpowerLabel.getText(),
-                    workHoursLabel.getText()
-                );
-            }
-
-            showThemedDialog("Project saved to:\n" + csv.getAbsolutePath() + "\nand\n" + hoursCsv.getAbsolutePath(),
-                            "Saved", "info");
-
-        } catch (IOException ex) {
-            showError("Could not write to Projects.csv:\n" + ex.getMessage());
-        }
+            hoursStore.append(record.toHoursCsv());
+            return null;
+        }, ignored -> showThemedDialog(
+            "Project saved to:\n" + csv.getAbsolutePath() + "\nand\n" + hoursCsv.getAbsolutePath(),
+            "Saved", "info"));
     }
 
     // ── CSV Load ─────────────────────────────────────────────────────────────
 
     private void loadProject() {
-        List<String[]> projects = readAllProjects();
-        if (projects == null) return;
+        readProjects(batch -> {
+            List<String[]> projects = batch.rows;
+
+            if (projects.isEmpty()) {
+                showError("No saved projects found in Projects.csv.");
+                return;
+            }
+
+            int idx = showThemedListDialog("Select a project to load:",
+                                        "Load Project", batch.names, LOAD_BLUE, "LOAD");
+            if (idx < 0) return;
+
+            showLoadedRow(batch, idx);
+        });
+    }
 
-        if (projects.isEmpty()) {
-            showError("No saved projects found in Projects.csv.");
+    /** Fills the inputs and results from a decoded project row. */
+    private void showLoadedRow(ProjectDecoder.Batch batch, int row) {
+        ProjectRecord r = batch.records[row];
+        if (r == null) {
+            showError("\"" + batch.rows.get(row)[0] + "\" cannot be loaded:\n" + batch.problem(row));
             return;
         }
+        projectNameField.setText(r.name);
+        locationField.setText(r.location);
+        lengthField.setText(Csv.number(r.length));
+        widthField.setText(Csv.number(r.width));
+        thicknessField.setText(Csv.number(r.thickness));
+        employeesField.setText(Integer.toString(r.employees));
+        if (pricing.current().regions().contains(r.region)) regionBox.setSelectedItem(r.region);
+        current = r;
+        showResults(r);
+    }
 
-        String[] labels = buildLabels(projects);
-        int idx = showThemedListDialog("Select a project to load:",
-                                    "Load Project", labels, LOAD_BLUE, "LOAD");
-        if (idx < 0) return;
-
-        String[] row = projects.get(idx);
-        projectNameField.setText(row[0]);
-        locationField.setText(row[1]);
-        lengthField.setText(row[2]);
-        widthField.setText(row[3]);
-        thicknessField.setText(row[4]);
-        employeesField.setText(row[5]);
-        areaLabel.setText(row[6]);
-        volumeCYLabel.setText(row[7]);
-        manpowerLabel.setText(row[8]);
-        workHoursLabel.setText(row[9]);
-        matCostLabel.setText(row[10]);
-        laborCostLabel.setText(row[11]);
-        
-        // Determine if this is old format (no manpower/hours cols) or new format
-        // Old: cols 0-7 are data, 8 is time/total info
-        // New: cols 0-11 are data, 12 is reinforcement, 13 is total, 14-15 are discount
-        if (row.length >= 16) {
-            // New format with manpower and work hours columns
-            reinforcementLabel.setText(row[12]);
-            totalCostLabel.setText(row[13]);
-            discountBadgeLabel.setText(row[14]);
-            discountedTotalLabel.setText(row[15]);
-        } else {
-            // Old format - read total at end
-            reinforcementLabel.setText(row.length > 11 ? row[11] : "—");
-            totalCostLabel.setText(row.length > 12 ? row[12] : "—");
-            discountBadgeLabel.setText(row.length > 13 ? row[13] : "—");
-            discountedTotalLabel.setText(row.length > 14 ? row[14] : "—");
-            // Calculate reinforcement from the loaded data
-            calculateReinforcementFromLoaded();
-        }
+    // ── Project query ───────────────────────────────────────────────────────
+
+    /**
+     * Filter saved projects by location, volume/total range and discount, sorted
+     * by a numeric column, then load the chosen one. Runs on ProjectQuery's
+     * indexes, so each search costs about the same however many projects exist.
+     */
+    private void findProjects() {
+        runIO("Indexing projects…", "Could not read Projects.csv:", () -> {
+            ensureCSVExists();
+            return ProjectQuery.index(store);
+        }, this::showFindDialog);
     }
-    
-    private void calculateReinforcementFromLoaded() {
-        try {
-            double volCY = Double.parseDouble(volumeCYLabel.getText().replace(" CY", "").trim());
-            double rebar = 1.30 * volCY;
-            double mesh = 0.20 * volCY;
-            double reinforcement = rebar + mesh;
-            reinforcementLabel.setText(String.format("$%.2f", reinforcement));
-        } catch (Exception e) {
-            reinforcementLabel.setText("—");
-        }
+
+    private void showFindDialog(ProjectQuery.Index index) {
+        reportUnreadable(index.batch());
+
+        JDialog dialog = new JDialog(this, "Find Projects", true);
+        dialog.setLayout(new BorderLayout());
+        dialog.getContentPane().setBackground(BG);
+
+        List<String> locations = new ArrayList<>(index.locations());
+        locations.add(0, "Any");
+        JComboBox<String> locationBox = new JComboBox<>(locations.toArray(new String[0]));
+        locationBox.setEditable(true);
+        JTextField minCY    = createField(FIELD_BG, TEXT_LIGHT);
+        JTextField maxCY    = createField(FIELD_BG, TEXT_LIGHT);
+        JTextField minTotal = createField(FIELD_BG, TEXT_LIGHT);
+        JTextField maxTotal = createField(FIELD_BG, TEXT_LIGHT);
+        JCheckBox discountOnly = new JCheckBox("Discount applied");
+        discountOnly.setOpaque(false);
+        discountOnly.setForeground(TEXT_LIGHT);
+        JComboBox<String> sortBox = new JComboBox<>(new String[]{"File order", "Total", "Volume", "Area"});
+        JCheckBox descending = new JCheckBox("Highest first", true);
+        descending.setOpaque(false);
+        descending.setForeground(TEXT_LIGHT);
+
+        JPanel form = new JPanel(new GridLayout(0, 4, 8, 6));
+        form.setBackground(BG);
+        form.setBorder(new EmptyBorder(12, 16, 8, 16));
+        form.add(queryLabel("Location:"));    form.add(locationBox);
+        form.add(queryLabel("Sort by:"));     form.add(sortBox);
+        form.add(queryLabel("Min CY:"));      form.add(minCY);
+        form.add(queryLabel("Max CY:"));      form.add(maxCY);
+        form.add(queryLabel("Min Total $:")); form.add(minTotal);
+        form.add(queryLabel("Max Total $:")); form.add(maxTotal);
+        form.add(discountOnly);               form.add(new JLabel());
+        form.add(descending);                 form.add(new JLabel());
+
+        JLabel countLabel = queryLabel(" ");
+        countLabel.setBorder(new EmptyBorder(0, 16, 6, 16));
+        JPanel north = new JPanel(new BorderLayout());
+        north.setBackground(BG);
+        north.add(form, BorderLayout.CENTER);
+        north.add(countLabel, BorderLayout.SOUTH);
+        dialog.add(north, BorderLayout.NORTH);
+
+        ProjectPickerModel model = new ProjectPickerModel(index.rows());
+        model.setView(new int[0]);
+        JList<String> list = new JList<>(model);
+        list.setBackground(FIELD_BG);
+        list.setForeground(TEXT_LIGHT);
+        list.setSelectionBackground(ACCENT);
+        list.setSelectionForeground(BG);
+        list.setFont(new Font("Arial", Font.PLAIN, 13));
+        list.setPrototypeCellValue("Parking Lot Section  —  Commercial");
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        JScrollPane scroll = new JScrollPane(list);
+        scroll.setBorder(BorderFactory.createCompoundBorder(
+            new EmptyBorder(0, 16, 10, 16),
+            new LineBorder(BORDER_COL, 1)
+        ));
+        scroll.getViewport().setBackground(FIELD_BG);
+        dialog.add(scroll, BorderLayout.CENTER);
+
+        JButton search = themedDialogBtn("SEARCH", ACCENT, BG);
+        JButton cancel = themedDialogBtn("CANCEL", FIELD_BG, TEXT_DIM);
+        JButton load   = themedDialogBtn("LOAD", LOAD_BLUE, Color.WHITE);
+        search.addActionListener(e -> {
+            try {
+                double loCY = bound(minCY, true), hiCY = bound(maxCY, false);
+                double loTotal = bound(minTotal, true), hiTotal = bound(maxTotal, false);
+                if (loCY > hiCY || loTotal > hiTotal) {
+                    showError("Each Min must not be greater than its Max.");
+                    return;
+                }
+                ProjectQuery q = new ProjectQuery()
+                    .range(ProjectQuery.Field.VOLUME, loCY,    hiCY)
+                    .range(ProjectQuery.Field.TOTAL,  loTotal, hiTotal);
+                Object loc = locationBox.getSelectedItem();
+                if (loc != null && !"Any".equals(loc)) q.location(loc.toString());
+                if (discountOnly.isSelected()) q.discounted(true);
+                switch ((String) sortBox.getSelectedItem()) {
+                    case "Total":  q.sortBy(ProjectQuery.Field.TOTAL,  descending.isSelected()); break;
+                    case "Volume": q.sortBy(ProjectQuery.Field.VOLUME, descending.isSelected()); break;
+                    case "Area":   q.sortBy(ProjectQuery.Field.AREA,   descending.isSelected()); break;
+                    default:       break;
+                }
+                int[] hits = q.run(index);
+                model.setView(hits);
+                countLabel.setText(hits.length + " of " + index.rows().size() + " projects match");
+                if (hits.length > 0) list.setSelectedIndex(0);
+                else list.clearSelection();
+            } catch (NumberFormatException ex) {
+                showError("Please enter valid numbers in the range fields.");
+            }
+        });
+        cancel.addActionListener(e -> dialog.dispose());
+        load.addActionListener(e -> {
+            int sel = list.getSelectedIndex();
+            if (sel < 0 || sel >= model.getSize()) return;
+            dialog.dispose();
+            showLoadedRow(index.batch(), model.rowAt(sel));
+        });
+
+        JPanel btnRow = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 10));
+        btnRow.setBackground(new Color(38, 43, 54));
+        btnRow.setBorder(BorderFactory.createMatteBorder(1, 0, 0, 0, BORDER_COL));
+        btnRow.add(search);
+        btnRow.add(cancel);
+        btnRow.add(load);
+        dialog.add(btnRow, BorderLayout.SOUTH);
+
+        search.doClick();
+        dialog.setSize(520, 440);
+        dialog.setLocationRelativeTo(this);
+        dialog.setVisible(true);
+    }
+
+    private JLabel queryLabel(String text) {
+        JLabel l = new JLabel(text);
+        l.setFont(new Font("Arial", Font.PLAIN, 12));
+        l.setForeground(TEXT_DIM);
+        return l;
+    }
+
+    /** Reads an optional range bound; blank means open-ended. */
+    private static double bound(JTextField field, boolean lower) {
+        String text = field.getText().trim();
+        if (text.isEmpty()) return lower ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        return Double.parseDouble(text);
     }
 
     // ── CSV Delete ────────────────────────────────────────────────────────────
 
     private void deleteProject() {
-        List<String[]> projects = readAllProjects();
-        if (projects == null) return;
+        readProjects(batch -> {
+            List<String[]> projects = batch.rows;
 
-        if (projects.isEmpty()) {
-            showError("No saved projects found to delete.");
-            return;
-        }
+            if (projects.isEmpty()) {
+                showError("No saved projects found to delete.");
+                return;
+            }
 
-        String[] labels = buildLabels(projects);
-        int idx = showThemedListDialog("Select a project to delete:",
-                                    "Delete Project", labels, DEL_RED, "DELETE");
-        if (idx < 0) return;
+            int idx = showThemedListDialog("Select a project to delete:",
+                                        "Delete Project", batch.names, DEL_RED, "DELETE");
+            if (idx < 0) return;
+
+            String name = projects.get(idx)[0];
+            boolean confirmed = showThemedDialog(
+                "Permanently delete \"" + name + "\"?\nThis cannot be undone.",
+                "Confirm Delete", "confirm");
+            if (!confirmed) return;
+
+            // Rewrite the file; the row is matched by content under the store's
+            // lock, so a concurrent save or delete by another user is not lost
+            String[] row = projects.get(idx);
+            runIO("Deleting \"" + name + "\"…", "Could not update Projects.csv:",
+                  () -> store.delete(row), deleted -> {
+                if (!deleted) {
+                    showError("\"" + name + "\" was already changed or removed by another user.");
+                    return;
+                }
+                showThemedDialog("\"" + name + "\" has been deleted.", "Deleted", "info");
+            });
+        });
+    }
+
+    // ── Reprice ──────────────────────────────────────────────────────────────
 
-        String name = projects.get(idx)[0];
+    /**
+     * Prices every saved project again with the current rate table, each at
+     * its own region's rates, through BatchPricing. The rows are taken and
+     * rewritten under the store's exclusive lock, so a project another user
+     * saves meanwhile is either repriced too or written after.
+     */
+    private void repriceAll() {
         boolean confirmed = showThemedDialog(
-            "Permanently delete \"" + name + "\"?\nThis cannot be undone.",
-            "Confirm Delete", "confirm");
+            "Reprice every saved project with the current rates?\nTheir saved costs will be replaced.",
+            "Confirm Reprice", "confirm");
         if (!confirmed) return;
+        PricingModel model = pricing.current();
+        runIO("Repricing projects…", "Could not update Projects.csv:", () -> {
+            ensureCSVExists();
+            return store.rewriteAll(rows -> BatchPricing.repriceRows(rows, model));
+        }, changed -> showThemedDialog(changed == 0 ? "Every project already has the current prices."
+                : changed + (changed == 1 ? " project was" : " projects were") + " repriced.",
+            "Repriced", "info"));
+    }
 
-        projects.remove(idx);
+    // ── Background file work ─────────────────────────────────────────────────
 
-        // Rewrite the file
-        try {
-            File csv = new File(CSV_FILE);
-            try (PrintWriter pw = new PrintWriter(new FileWriter(csv, false))) {
-                pw.println(CSV_HEADER);
-                for (String[] row : projects) {
-                    StringBuilder sb = new StringBuilder();
-                    for (int i = 0; i < row.length; i++) {
-                        if (i > 0) sb.append(',');
-                        // Re-quote fields that were originally quoted (name and location)
-                        if (i == 0 || i == 1) {
-                            sb.append('"').append(row[i]).append('"');
-                        } else {
-                            sb.append(row[i]);
-                        }
-                    }
-                    pw.println(sb.toString());
-                }
+    /**
+     * Runs file work on ProjectStore's I/O pool so the window never freezes on
+     * a slow disk or a large file. done gets the result on the event thread;
+     * a failure is shown as failurePrefix plus the error message instead.
+     */
+    private <T> void runIO(String status, String failurePrefix,
+                           ProjectStore.LockedAction<T> work, Consumer<T> done) {
+        track(status, failurePrefix, ProjectStore.async(work), done);
+    }
+
+    /** Like runIO, for work that is already running. */
+    private <T> void track(String status, String failurePrefix,
+                           CompletableFuture<T> work, Consumer<T> done) {
+        setBusy(status, 1);
+        work.whenComplete((result, err) -> SwingUtilities.invokeLater(() -> {
+            setBusy(null, -1);
+            if (err == null) {
+                done.accept(result);
+            } else {
+                Throwable cause = err instanceof CompletionException && err.getCause() != null
+                    ? err.getCause() : err;
+                showError(failurePrefix + "\n" + cause.getMessage());
             }
-            showThemedDialog("\"" + name + "\" has been deleted.", "Deleted", "info");
-        } catch (IOException ex) {
-            showError("Could not update Projects.csv:\n" + ex.getMessage());
+        }));
+    }
+
+    /** Shows status in the footer; buttons come back once nothing is pending. */
+    private void setBusy(String status, int delta) {
+        ioPending += delta;
+        boolean busy = ioPending > 0;
+        if (status != null) {
+            footerNote.setText(status);
+        } else if (!busy) {
+            footerNote.setText(rateNote());
         }
+        ioProgress.setVisible(busy);
+        for (JButton b : ioButtons) b.setEnabled(!busy);
+    }
+
+    // ── Rates ────────────────────────────────────────────────────────────────
+
+    /** Lists the regions of a newly loaded rate table, keeping the choice if it still exists. */
+    private void showRegions(PricingModel model) {
+        ratesProblem = null;
+        Object selected = regionBox.getSelectedItem();
+        List<String> regions = model.regions();
+        regionBox.setModel(new DefaultComboBoxModel<>(regions.toArray(new String[0])));
+        regionBox.setSelectedItem(regions.contains(selected) ? selected : model.rates(null).region);
+        if (ioPending == 0) footerNote.setText(rateNote());
+    }
+
+    /** Footer summary of the selected region's rates, or why Rates.csv was rejected. */
+    private String rateNote() {
+        if (ratesProblem != null) return "Rates not updated — " + ratesProblem;
+        PricingModel.Rates r = pricing.current().rates((String) regionBox.getSelectedItem());
+        return String.format("Material: $%s/CY  ·  Labor: $%s/hr/employee  ·  Reinforcement + Leveling  ·  +%s%% volume buffer  ·  Auto-discount applied",
+            Csv.number(r.materialPerCY), Csv.number(r.laborPerHour),
+            Csv.number(Math.round((r.overage - 1) * 1000) / 10.0));
     }
 
     // ── Shared CSV read ───────────────────────────────────────────────────────
 
-    /** Reads all project rows. Returns null on I/O error (already shows dialog). */
-    private List<String[]> readAllProjects() {
-        try {
+    /**
+     * Reads all project rows, decoded and name-indexed, from the store's
+     * in-memory table on the I/O pool, then hands them to then on the event
+     * thread. Rows that could not be decoded are reported once per version of
+     * the file; on an I/O error the dialog is shown and then is not called.
+     */
+    private void readProjects(Consumer<ProjectDecoder.Batch> then) {
+        runIO("Reading projects…", "Could not read Projects.csv:", () -> {
             ensureCSVExists();
-        } catch (IOException ex) {
-            showError("Could not create Projects.csv:\n" + ex.getMessage());
-            return null;
-        }
-
-        File csv = new File(CSV_FILE);
-        List<String[]> projects = new ArrayList<>();
+            return ProjectDecoder.batch(store);
+        }, batch -> {
+            reportUnreadable(batch);
+            then.accept(batch);
+        });
+    }
 
-        try (BufferedReader br = new BufferedReader(new FileReader(csv))) {
-            String line = br.readLine(); // skip header
-            while ((line = br.readLine()) != null) {
-                if (line.trim().isEmpty()) continue;
-                String[] cols = parseCSVLine(line);
-                if (cols.length >= 12) {
-                    projects.add(cols);
-                }
-            }
-        } catch (IOException ex) {
-            showError("Could not read Projects.csv:\n" + ex.getMessage());
-            return null;
+    /** Shows which rows could not be decoded, once per version of the file. */
+    private void reportUnreadable(ProjectDecoder.Batch batch) {
+        if (batch.malformed() > 0 && batch != reportedBatch) {
+            reportedBatch = batch;
+            showThemedDialog("Projects.csv: " + batch.summary(3), "Unreadable Rows", "error");
         }
-        return projects;
     }
 
-    private String[] buildLabels(List<String[]> projects) {
-        String[] labels = new String[projects.size()];
-        for (int i = 0; i < projects.size(); i++) {
-            String[] p = projects.get(i);
-            labels[i] = p[0] + (p[1].isEmpty() ? "" : "  —  " + p[1]);
-        }
-        return labels;
-    }
-
-    /** Minimal CSV parser that handles double-quoted fields. */
-    private String[] parseCSVLine(String line) {
-        List<String> fields = new ArrayList<>();
-        StringBuilder sb = new StringBuilder();
-        boolean inQuotes = false;
-        for (int i = 0; i < line.length(); i++) {
-            char c = line.charAt(i);
-            if (c == '"') {
-                inQuotes = !inQuotes;
-            } else if (c == ',' && !inQuotes) {
-                fields.add(sb.toString());
-                sb.setLength(0);
-            } else {
-                sb.append(c);
-            }
-        }
-        fields.add(sb.toString());
-        return fields.toArray(new String[0]);
+    private static String projectLabel(String[] p) {
+        String location = p.length > 1 ? p[1] : "";
+        return p[0] + (location.isEmpty() ? "" : "  —  " + location);
     }
 
     private void resetFields() {
+        current = null;
         projectNameField.setText("");
         locationField.setText("");
         lengthField.setText("");
@@ -943,6 +1099,7 @@ public class IndividualProject_MeikleDominic extends JFrame {
         matCostLabel.setText("—");
         laborCostLabel.setText("—");
         reinforcementLabel.setText("—");
+        ratesLabel.setText("—");
         totalCostLabel.setText("—");
         discountBadgeLabel.setText("—");
         discountedTotalLabel.setText("—");
@@ -951,11 +1108,14 @@ public class IndividualProject_MeikleDominic extends JFrame {
     // ── Entry point ───────────────────────────────────────────────────────────
 
     public static void main(String[] args) {
+        EdtMonitor.install();
         SwingUtilities.invokeLater(() -> {
             try {
                 UIManager.setLookAndFeel(UIManager.getCrossPlatformLookAndFeelClassName());
             } catch (Exception ignored) {}
-            new IndividualProject_MeikleDominic().setVisible(true);
+            IndividualProject_MeikleDominic app = new IndividualProject_MeikleDominic();
+            EdtMonitor.reportFirstPaint(app, "IndividualProject_MeikleDominic");
+            app.setVisible(true);
         });
     }
 }
\ No newline at end of file
@@ -0,0 +1,306 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Portfolio totals over the saved projects:
+ *   - project count, volume, list and discounted totals per location category
+ *   - discount savings given away per discount rule
+ *   - labor (work hours and person-hours) from Hours.csv
+ *
+ * Each file is split into line-aligned segments that worker threads read with
+ * positional FileChannel reads into their own accumulator; the partial results
+ * are merged at the end. Memory use is one read buffer per thread, so files
+ * larger than RAM stream through at disk speed. Projects.csv column offsets
+ * come from the header plan in ProjectDecoder; unreadable lines are counted.
+ * Both files must hold plain numbers (Projects.csv v2 and later, Hours.csv
+ * with ProjectRecord.HOURS_HEADER); older files are migrated first with
+ * ProjectMigration rather than having units stripped here.
+ *
+ *   java PortfolioReport [Projects.csv] [Hours.csv]
+ */
+public class PortfolioReport {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    // Hours.csv columns
+    private static final int COL_MANPOWER   = 1;
+    private static final int COL_WORK_HOURS = 2;
+
+    /** Totals for one group (a location or a discount rule). */
+    public static final class Totals {
+        public long   projects;
+        public double volumeCY;
+        public double total;
+        public double discountedTotal;
+        public double savings;
+
+        void add(Totals o) {
+            projects        += o.projects;
+            volumeCY        += o.volumeCY;
+            total           += o.total;
+            discountedTotal += o.discountedTotal;
+            savings         += o.savings;
+        }
+    }
+
+    /** One thread's (or the merged) results. */
+    public static final class Result {
+        public final Map<String, Totals> byLocation = new TreeMap<>();
+        public final Map<String, Totals> byRule     = new TreeMap<>();
+        public long   hoursRows;
+        public double workHours;
+        public double personHours;
+        public long   malformed;  // lines in either file that could not be read
+
+        void merge(Result o) {
+            for (Map.Entry<String, Totals> e : o.byLocation.entrySet()) {
+                byLocation.computeIfAbsent(e.getKey(), k -> new Totals()).add(e.getValue());
+            }
+            for (Map.Entry<String, Totals> e : o.byRule.entrySet()) {
+                byRule.computeIfAbsent(e.getKey(), k -> new Totals()).add(e.getValue());
+            }
+            hoursRows   += o.hoursRows;
+            workHours   += o.workHours;
+            personHours += o.personHours;
+            malformed   += o.malformed;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("%-16s %9s %14s %16s %16s%n",
+                "Location", "Projects", "Volume (CY)", "Total", "After Discount"));
+            Totals all = new Totals();
+            for (Map.Entry<String, Totals> e : byLocation.entrySet()) {
+                Totals t = e.getValue();
+                all.add(t);
+                sb.append(String.format("%-16s %9d %14.3f %16.2f %16.2f%n",
+                    e.getKey(), t.projects, t.volumeCY, t.total, t.discountedTotal));
+            }
+            sb.append(String.format("%-16s %9d %14.3f %16.2f %16.2f%n%n",
+                "ALL", all.projects, all.volumeCY, all.total, all.discountedTotal));
+
+            sb.append(String.format("%-28s %9s %16s%n", "Discount Rule", "Projects", "Savings"));
+            for (Map.Entry<String, Totals> e : byRule.entrySet()) {
+                sb.append(String.format("%-28s %9d %16.2f%n",
+                    e.getKey(), e.getValue().projects, e.getValue().savings));
+            }
+            sb.append(String.format("%nLabor: %d entries, %.2f work hours, %.2f person-hours%n",
+                hoursRows, workHours, personHours));
+            if (malformed > 0) {
+                sb.append(String.format("Skipped %d malformed rows%n", malformed));
+            }
+            return sb.toString();
+        }
+    }
+
+    /** Folds one tokenized CSV line into an accumulator. */
+    private interface LineHandler {
+        void accept(Csv.ByteCursor row, Result acc);
+    }
+
+    // ── Entry points ─────────────────────────────────────────────────────────
+
+    /** Builds the report; hours may be null or missing. */
+    public static Result run(File projects, File hours) throws IOException {
+        ProjectLines projectLines;
+        try (BufferedReader in = new BufferedReader(new FileReader(projects))) {
+            ProjectDecoder plan = ProjectDecoder.forHeader(in.readLine());
+            if (plan.schemaVersion() < 2) {  // the report reads v2's numeric columns
+                throw new IOException(projects + " uses an older layout; run: java ProjectMigration " + projects);
+            }
+            projectLines = new ProjectLines(plan);
+        } catch (IllegalArgumentException ex) {
+            throw new IOException(ex.getMessage());
+        }
+        if (hours != null && hours.exists()) {
+            String header;
+            try (BufferedReader in = new BufferedReader(new FileReader(hours))) {
+                header = in.readLine();
+            }
+            if (ProjectRecord.HOURS_HEADER_V1.equals(header)) {
+                throw new IOException(hours + " uses an older layout; run: java ProjectMigration " + projects + " " + hours);
+            }
+            if (header != null && !ProjectRecord.HOURS_HEADER.equals(header)) {
+                throw new IOException(hours + " has an unknown header: " + header);
+            }
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "portfolio-report");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            Result result = new Result();
+            result.merge(scan(projects.toPath(), projectLines, pool, threads));
+            if (hours != null && hours.exists()) {
+                result.merge(scan(hours.toPath(), PortfolioReport::hoursLine, pool, threads));
+            }
+            return result;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        File projects = new File(args.length > 0 ? args[0] : "Projects.csv");
+        File hours    = new File(args.length > 1 ? args[1] : "Hours.csv");
+        long start = System.nanoTime();
+        Result r = run(projects, hours);
+        System.out.print(r);
+        System.err.printf("Report built in %d ms%n", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // ── Parallel scan ────────────────────────────────────────────────────────
+
+    /** Splits the file into line-aligned segments, scans them in parallel and merges. */
+    private static Result scan(Path file, LineHandler handler, ExecutorService pool, int threads)
+            throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            int segments = (int) Math.max(1, Math.min(threads * 4L, size / BUFFER_SIZE));
+            long step = size / segments;
+
+            List<Future<Result>> parts = new ArrayList<>();
+            for (int i = 0; i < segments; i++) {
+                long from = i * step;
+                long to   = i == segments - 1 ? size : (i + 1) * step;
+                parts.add(pool.submit(() -> scanSegment(ch, from, to, handler)));
+            }
+            Result merged = new Result();
+            for (Future<Result> f : parts) {
+                try {
+                    merged.merge(f.get());
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Report interrupted");
+                } catch (ExecutionException ex) {
+                    Throwable cause = ex.getCause();
+                    if (cause instanceof IOException) throw (IOException) cause;
+                    throw new IOException(cause);
+                }
+            }
+            return merged;
+        }
+    }
+
+    /**
+     * Handles every line that starts in [from, to). A segment skips its first
+     * partial line (the previous segment owns it) and reads past {@code to} to
+     * finish its last one. The header is the first line of segment 0.
+     */
+    private static Result scanSegment(FileChannel ch, long from, long to, LineHandler handler)
+            throws IOException {
+        Result acc = new Result();
+        Csv.ByteCursor row = new Csv.ByteCursor();
+        ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE);
+        byte[] arr = buf.array();
+        long pos = from;
+        long lineStart = from;   // file offset of arr[0]
+        boolean skipFirst = true; // header (segment 0) or partial line (others)
+        if (from > 0) {
+            // If the byte before us is a newline we start on a line boundary
+            ByteBuffer one = ByteBuffer.allocate(1);
+            ch.read(one, from - 1);
+            skipFirst = one.get(0) != '\n';
+        }
+
+        while (true) {
+            int n = ch.read(buf, pos);
+            boolean eof = n <= 0;
+            if (!eof) pos += n;
+            int limit = buf.position();
+            int start = 0;
+            for (int i = 0; i < limit; i++) {
+                if (arr[i] != '\n') continue;
+                if (skipFirst) {
+                    skipFirst = false;
+                } else if (lineStart + start < to) {
+                    handler.accept(row.reset(arr, start, i), acc);
+                }
+                start = i + 1;
+                if (lineStart + start >= to) return acc;
+            }
+            if (eof) {
+                if (start < limit && !skipFirst && lineStart + start < to) {
+                    handler.accept(row.reset(arr, start, limit), acc);  // last line without newline
+                }
+                return acc;
+            }
+            // Move the unfinished line to the front of the buffer
+            if (start == 0 && limit == arr.length) {
+                ByteBuffer bigger = ByteBuffer.allocate(arr.length * 2);
+                bigger.put(arr, 0, limit);
+                buf = bigger;
+                arr = buf.array();
+            } else {
+                System.arraycopy(arr, start, arr, 0, limit - start);
+                buf.position(limit - start);
+                lineStart += start;
+            }
+        }
+    }
+
+    // ── Line handlers ────────────────────────────────────────────────────────
+
+    /** Folds Projects.csv lines, with column offsets taken from the file's header plan. */
+    private static final class ProjectLines implements LineHandler {
+        private final int location, volume, total, rule, discounted, width;
+
+        ProjectLines(ProjectDecoder plan) {
+            location   = plan.column(ProjectDecoder.Field.LOCATION);
+            volume     = plan.column(ProjectDecoder.Field.VOLUME);
+            total      = plan.column(ProjectDecoder.Field.TOTAL);
+            rule       = plan.column(ProjectDecoder.Field.RULE);
+            discounted = plan.column(ProjectDecoder.Field.DISCOUNTED);
+            width      = plan.width();
+        }
+
+        @Override
+        public void accept(Csv.ByteCursor row, Result acc) {
+            if (row.fields() < width) {
+                if (!row.isBlank()) acc.malformed++;
+                return;
+            }
+            double totalCost  = row.plainNumber(total);
+            double discounted = row.plainNumber(this.discounted);
+            double volumeCY   = row.plainNumber(volume);
+            if (Double.isNaN(totalCost) || Double.isNaN(discounted) || Double.isNaN(volumeCY)) {
+                acc.malformed++;
+                return;
+            }
+
+            String loc = row.text(location);
+            if (loc.isEmpty()) loc = "(none)";
+            Totals t = acc.byLocation.computeIfAbsent(loc, k -> new Totals());
+            t.projects++;
+            t.volumeCY        += volumeCY;
+            t.total           += totalCost;
+            t.discountedTotal += discounted;
+
+            if (discounted < totalCost) {
+                Totals r = acc.byRule.computeIfAbsent(row.text(rule), k -> new Totals());
+                r.projects++;
+                r.savings += totalCost - discounted;
+            }
+        }
+    }
+
+    private static void hoursLine(Csv.ByteCursor row, Result acc) {
+        double hours = row.fields() > COL_WORK_HOURS ? row.plainNumber(COL_WORK_HOURS) : Double.NaN;
+        double people = row.fields() > COL_MANPOWER ? row.plainNumber(COL_MANPOWER) : Double.NaN;
+        if (Double.isNaN(hours) || Double.isNaN(people)) {
+            if (!row.isBlank()) acc.malformed++;
+            return;
+        }
+        acc.hoursRows++;
+        acc.workHours += hours;
+        acc.personHours += people * hours;
+    }
+}
@@ -0,0 +1,155 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * One immutable snapshot of the rate tables in Rates.csv: a row of rates per
+ * region. Snapshots are never changed after they are built; a new file
+ * produces a new snapshot (see {@link PricingStore}), so a quote always sees
+ * one consistent table. Every quote records the version of the snapshot it
+ * was priced with, a checksum of the file's contents.
+ */
+public final class PricingModel {
+
+    public static final String HEADER =
+        "Region,Material ($/CY),Labor ($/hr/employee),Rebar ($/CY),Mesh ($/CY),Leveling ($/sq ft),Volume Overage";
+    public static final String DEFAULT_REGION = "Default";
+
+    /** Rates for one region, tagged with the snapshot they came from. */
+    public static final class Rates {
+        public final String region;
+        public final double materialPerCY;
+        public final double laborPerHour;     // per employee
+        public final double rebarPerCY;
+        public final double meshPerCY;
+        public final double levelingPerSqFt;
+        public final double overage;          // volume multiplier, 1.10 = +10%
+        public final String version;
+
+        Rates(String region, double materialPerCY, double laborPerHour, double rebarPerCY,
+              double meshPerCY, double levelingPerSqFt, double overage, String version) {
+            this.region = region;
+            this.materialPerCY = materialPerCY;
+            this.laborPerHour = laborPerHour;
+            this.rebarPerCY = rebarPerCY;
+            this.meshPerCY = meshPerCY;
+            this.levelingPerSqFt = levelingPerSqFt;
+            this.overage = overage;
+            this.version = version;
+        }
+
+        /** One Rates.csv line. */
+        String toCsv() {
+            return new Csv.Writer()
+                .field(region).field(materialPerCY).field(laborPerHour).field(rebarPerCY)
+                .field(meshPerCY).field(levelingPerSqFt).field(overage)
+                .takeRow();
+        }
+    }
+
+    /** The rates the estimators always used; also the seed for a new Rates.csv. */
+    public static final PricingModel BUILT_IN;
+    static {
+        Rates r = new Rates(DEFAULT_REGION, 130.0, 21.0, 1.30, 0.20, 2.0, 1.10, "built-in");
+        BUILT_IN = new PricingModel(Collections.singletonMap(DEFAULT_REGION, r), "built-in");
+    }
+
+    public final String version;  // CRC-32 of the file as 8 hex digits, or "built-in"
+    private final Map<String, Rates> regions;
+
+    private PricingModel(Map<String, Rates> regions, String version) {
+        this.regions = regions;
+        this.version = version;
+    }
+
+    /** Rates for a region; unknown regions get the Default row, or else the first one. */
+    public Rates rates(String region) {
+        Rates r = region == null ? null : regions.get(region);
+        if (r == null) r = regions.get(DEFAULT_REGION);
+        return r != null ? r : regions.values().iterator().next();
+    }
+
+    /** Region names in file order. */
+    public List<String> regions() {
+        return new ArrayList<>(regions.keySet());
+    }
+
+    /** The text of a Rates.csv holding these rates. */
+    public String toCsv() {
+        StringBuilder sb = new StringBuilder(HEADER).append(System.lineSeparator());
+        for (Rates r : regions.values()) sb.append(r.toCsv()).append(System.lineSeparator());
+        return sb.toString();
+    }
+
+    /**
+     * Compiles the contents of a Rates.csv. Columns are found by header name,
+     * so they may be in any order. Throws IllegalArgumentException naming the
+     * first bad row; a table is used whole or not at all.
+     */
+    public static PricingModel parse(byte[] content) {
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        String version = String.format("%08x", crc.getValue());
+
+        Map<String, Rates> regions = new LinkedHashMap<>();
+        try (BufferedReader in = new BufferedReader(new StringReader(new String(content, StandardCharsets.UTF_8)))) {
+            String header = in.readLine();
+            if (header == null) throw new IllegalArgumentException("Rates.csv is empty");
+            int[] col = columns(Csv.parse(header.startsWith("\uFEFF") ? header.substring(1) : header));
+
+            Csv.RowCursor row = new Csv.RowCursor();
+            String line;
+            int lineNo = 1;
+            while ((line = in.readLine()) != null) {
+                lineNo++;
+                if (row.reset(line).isBlank()) continue;
+                String region = row.field(col[0], "").trim();
+                if (region.isEmpty()) throw new IllegalArgumentException("row " + lineNo + ": no region");
+                double[] v = new double[6];
+                for (int i = 0; i < v.length; i++) {
+                    String s = row.field(col[i + 1], "").trim();
+                    try {
+                        v[i] = Double.parseDouble(s);
+                    } catch (NumberFormatException ex) {
+                        v[i] = Double.NaN;
+                    }
+                    if (!(v[i] >= 0) || Double.isInfinite(v[i])) {
+                        throw new IllegalArgumentException("row " + lineNo + " (" + region + "): \""
+                            + s + "\" is not a valid " + COLUMN_NAMES[i + 1]);
+                    }
+                }
+                if (v[5] < 1) {
+                    throw new IllegalArgumentException("row " + lineNo + " (" + region
+                        + "): volume overage is a multiplier and must be at least 1");
+                }
+                if (regions.putIfAbsent(region, new Rates(region, v[0], v[1], v[2], v[3], v[4], v[5], version)) != null) {
+                    throw new IllegalArgumentException("row " + lineNo + ": region \"" + region + "\" appears twice");
+                }
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);  // cannot happen reading a String
+        }
+        if (regions.isEmpty()) throw new IllegalArgumentException("Rates.csv has no regions");
+        return new PricingModel(Collections.unmodifiableMap(regions), version);
+    }
+
+    private static final String[] COLUMN_NAMES = Csv.parse(HEADER);
+
+    private static int[] columns(String[] header) {
+        int[] col = new int[COLUMN_NAMES.length];
+        for (int i = 0; i < col.length; i++) {
+            col[i] = -1;
+            for (int h = 0; h < header.length; h++) {
+                if (header[h].trim().equalsIgnoreCase(COLUMN_NAMES[i])) col[i] = h;
+            }
+            if (col[i] < 0) {
+                throw new IllegalArgumentException("Rates.csv has no \"" + COLUMN_NAMES[i] + "\" column");
+            }
+        }
+        return col;
+    }
+}
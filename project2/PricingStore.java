@@ -0,0 +1,118 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps the current {@link PricingModel} for a rates file (Rates.csv) and
+ * replaces it when the file changes.
+ *
+ * Readers call current(), which is a single volatile read: pricing a quote
+ * never takes a lock. A reload compiles a complete new snapshot off to the
+ * side and publishes it with one reference swap (copy-on-write), so a quote
+ * priced during a reload sees either the old table or the new one, never a
+ * mix. A file that does not parse is reported to the listeners and the
+ * previous snapshot stays in use.
+ */
+public class PricingStore {
+
+    /** Told about every reload; called on the loading thread. */
+    public interface Listener {
+        void reloaded(PricingModel model);
+        void failed(String message);
+    }
+
+    private final Path file;
+    private final AtomicReference<PricingModel> current = new AtomicReference<>(PricingModel.BUILT_IN);
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private Thread watcher;
+
+    public PricingStore(String filename) {
+        this.file = Paths.get(filename);
+    }
+
+    public Path getFile() { return file; }
+
+    /** The snapshot in use; the built-in rates until load() succeeds. */
+    public PricingModel current() {
+        return current.get();
+    }
+
+    public void addListener(Listener l) {
+        listeners.add(l);
+    }
+
+    /**
+     * Creates the file with the built-in rates if it is missing, then loads
+     * it. Returns the snapshot now in use; throws if the file cannot be read
+     * or does not parse, leaving the previous snapshot in place.
+     */
+    public synchronized PricingModel load() throws IOException {
+        if (!Files.exists(file)) {
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(tmp, PricingModel.BUILT_IN.toCsv().getBytes(StandardCharsets.UTF_8));
+            try {
+                // Another estimator may have created it meanwhile; theirs wins
+                Files.move(tmp, file);
+            } catch (FileAlreadyExistsException ex) {
+                Files.deleteIfExists(tmp);
+            }
+        }
+        PricingModel next;
+        try {
+            next = PricingModel.parse(Files.readAllBytes(file));
+        } catch (IllegalArgumentException | IOException ex) {
+            String message = file.getFileName() + ": " + ex.getMessage();
+            for (Listener l : listeners) l.failed(message);
+            throw new IOException(message);
+        }
+        PricingModel prev = current.get();
+        if (!next.version.equals(prev.version)) {
+            current.set(next);
+            for (Listener l : listeners) l.reloaded(next);
+        }
+        return current.get();
+    }
+
+    /** Starts a daemon thread that reloads the rates whenever the file changes. */
+    public synchronized void startWatching() throws IOException {
+        if (watcher != null) return;
+        Path dir = file.toAbsolutePath().getParent();
+        Path name = file.getFileName();
+        WatchService ws = dir.getFileSystem().newWatchService();
+        dir.register(ws, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+        watcher = new Thread(() -> {
+            try {
+                while (true) {
+                    WatchKey key = ws.take();
+                    boolean changed = false;
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                                || name.equals(event.context())) {
+                            changed = true;
+                        }
+                    }
+                    if (changed) {
+                        // Editors often save in several writes; let them finish
+                        Thread.sleep(100);
+                        key.pollEvents();
+                        try {
+                            if (Files.exists(file)) load();
+                        } catch (IOException ignored) {
+                            // Listeners were told; the old snapshot stays in use
+                        }
+                    }
+                    if (!key.reset()) break;
+                }
+            } catch (InterruptedException ignored) {
+            } finally {
+                try { ws.close(); } catch (IOException ignored) {}
+            }
+        }, "watch-" + name);
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+}
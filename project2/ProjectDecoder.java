@@ -0,0 +1,222 @@
+import java.io.IOException;
+import java.util.*;
+import java.util.List;
+
+/**
+ * Turns Projects.csv rows into {@link ProjectRecord}s.
+ *
+ * The file's header is looked at once and compiled into a plan: the column
+ * offset of every field plus the adapter for that schema version. Decoding a
+ * row is then one width check and a fixed sequence of lookups, with no
+ * guessing from the row length. Rows that do not fit the plan are counted and
+ * described in the {@link Batch} instead of being dropped.
+ *
+ * A header with the current column names in another order (for instance a
+ * file re-saved from a spreadsheet) is mapped by name. The Region and Rate
+ * Version columns are optional there, as they are missing from v2 files.
+ */
+public final class ProjectDecoder {
+
+    /** Fields of a record, in current column order. */
+    enum Field {
+        NAME, LOCATION, LENGTH, WIDTH, THICKNESS, EMPLOYEES, AREA, VOLUME, MANPOWER,
+        WORK_HOURS, MATERIAL, LABOR, REINFORCEMENT, TOTAL, RULE, DISCOUNT_PCT, DISCOUNTED,
+        REGION, RATE_VERSION
+    }
+
+    /** Builds a record from a row using the plan's column offsets. */
+    private interface Adapter {
+        ProjectRecord decode(String[] row, int[] col);
+    }
+
+    private static final String[] COLUMNS = Csv.parse(ProjectRecord.HEADER);
+    private static final int REQUIRED = Field.REGION.ordinal();  // fields every v2+ file has
+
+    private final int      schemaVersion;
+    private final int[]    col;    // [Field.ordinal()] -> column offset
+    private final int      width;  // columns a row needs
+    private final Adapter  adapter;
+
+    private ProjectDecoder(int schemaVersion, int[] col, int width, Adapter adapter) {
+        this.schemaVersion = schemaVersion;
+        this.col     = col;
+        this.width   = width;
+        this.adapter = adapter;
+    }
+
+    public int schemaVersion() { return schemaVersion; }
+
+    /** Column offset of a field in this file's layout; -1 if the file lacks it. */
+    int column(Field f) { return col[f.ordinal()]; }
+
+    /** Columns a row must have under this plan. */
+    int width() { return width; }
+
+    /**
+     * Compiles the plan for a header line. Null (an empty file) means the
+     * current layout. Throws IllegalArgumentException for an unknown header.
+     */
+    public static ProjectDecoder forHeader(String header) {
+        if (header == null || header.equals(ProjectRecord.HEADER)) {
+            return new ProjectDecoder(3, identity(), ProjectRecord.COLUMNS, ProjectDecoder::decodeNumeric);
+        }
+        if (header.equals(ProjectRecord.HEADER_V2)) {
+            int[] col = identity();
+            col[Field.REGION.ordinal()] = col[Field.RATE_VERSION.ordinal()] = -1;
+            return new ProjectDecoder(2, col, REQUIRED, ProjectDecoder::decodeNumeric);
+        }
+        if (header.equals(ProjectRecord.HEADER_V1)) {
+            // Rows from the first release lack the reinforcement column; the v1
+            // adapter reads both lengths, so only the 12 shared columns are required
+            return new ProjectDecoder(1, identity(), 12, (row, c) -> ProjectRecord.fromV1(row));
+        }
+
+        String[] names = Csv.parse(header);
+        Map<String, Integer> byName = new HashMap<>();
+        for (int i = 0; i < names.length; i++) byName.putIfAbsent(names[i].trim(), i);
+        int[] col = new int[COLUMNS.length];
+        int width = 0;
+        for (int f = 0; f < COLUMNS.length; f++) {
+            Integer at = byName.get(COLUMNS[f]);
+            if (at == null && f < REQUIRED) {
+                throw new IllegalArgumentException("Unrecognized Projects.csv header: no \""
+                    + COLUMNS[f] + "\" column");
+            }
+            col[f] = at == null ? -1 : at;
+            width = Math.max(width, col[f] + 1);
+        }
+        boolean rated = col[Field.REGION.ordinal()] >= 0 && col[Field.RATE_VERSION.ordinal()] >= 0;
+        return new ProjectDecoder(rated ? 3 : 2, col, width, ProjectDecoder::decodeNumeric);
+    }
+
+    private static int[] identity() {
+        int[] col = new int[Field.values().length];
+        for (int i = 0; i < col.length; i++) col[i] = i;
+        return col;
+    }
+
+    /** Decodes one row; throws IllegalArgumentException if it is malformed. */
+    public ProjectRecord decode(String[] row) {
+        if (row.length < width) {
+            throw new IllegalArgumentException("expected " + width + " columns, found " + row.length);
+        }
+        return adapter.decode(row, col);
+    }
+
+    // ── Adapters ─────────────────────────────────────────────────────────────
+
+    /** Schema v2 and later; v2 rows have no region or rate version. */
+    private static ProjectRecord decodeNumeric(String[] row, int[] c) {
+        return new ProjectRecord(
+            row[c[0]], row[c[1]],
+            number(row[c[2]]), number(row[c[3]]), number(row[c[4]]),
+            Integer.parseInt(row[c[5]]),
+            number(row[c[6]]), number(row[c[7]]), number(row[c[9]]),
+            number(row[c[10]]), number(row[c[11]]), number(row[c[12]]), number(row[c[13]]),
+            row[c[14]], number(row[c[15]]), number(row[c[16]]),
+            c[17] < 0 ? "" : row[c[17]], c[18] < 0 ? "" : row[c[18]]);
+    }
+
+    /**
+     * Parses a plain decimal as written by ProjectRecord. Up to 15 significant
+     * digits the result is digits / 10^scale, which is exactly rounded; longer
+     * values fall back to Double.parseDouble.
+     */
+    static double number(String s) {
+        int n = s.length();
+        if (n == 0 || n > 17) return Double.parseDouble(s);
+        int i = 0;
+        boolean negative = s.charAt(0) == '-';
+        if (negative) i++;
+        long digits = 0;
+        int scale = -1, count = 0;
+        for (; i < n; i++) {
+            char ch = s.charAt(i);
+            if (ch >= '0' && ch <= '9') {
+                digits = digits * 10 + (ch - '0');
+                count++;
+                if (scale >= 0) scale++;
+            } else if (ch == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                return Double.parseDouble(s);  // throws for anything malformed
+            }
+        }
+        if (count == 0 || count > 15) return Double.parseDouble(s);
+        double v = scale > 0 ? digits / POW10[scale] : digits;
+        return negative ? -v : v;
+    }
+
+    private static final double[] POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9,
+        1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17
+    };
+
+    // ── Batch decoding ───────────────────────────────────────────────────────
+
+    /** Every row of one table snapshot, decoded once. */
+    public static final class Batch {
+        public final ProjectStore.NameIndex names;
+        public final List<String[]> rows;
+        public final ProjectRecord[] records;  // null where the row is malformed
+        public final int schemaVersion;
+        private final Map<Integer, String> problems = new TreeMap<>();
+
+        Batch(ProjectStore.NameIndex names, ProjectDecoder decoder) {
+            this.names = names;
+            this.rows = names.rows();
+            this.schemaVersion = decoder.schemaVersion;
+            records = new ProjectRecord[rows.size()];
+            for (int r = 0; r < records.length; r++) {
+                String[] row = rows.get(r);
+                try {
+                    records[r] = decoder.decode(row);
+                } catch (IllegalArgumentException ex) {
+                    problems.put(r, ex.getMessage());
+                }
+            }
+        }
+
+        public int malformed() { return problems.size(); }
+
+        /** Why a row could not be decoded, or null if it was fine. */
+        public String problem(int row) { return problems.get(row); }
+
+        /** A short report of the first few malformed rows. */
+        public String summary(int maxRows) {
+            StringBuilder sb = new StringBuilder();
+            sb.append(problems.size()).append(problems.size() == 1 ? " row" : " rows")
+              .append(" could not be read:");
+            int shown = 0;
+            for (Map.Entry<Integer, String> e : problems.entrySet()) {
+                if (shown++ == maxRows) {
+                    sb.append("\n…and ").append(problems.size() - maxRows).append(" more");
+                    break;
+                }
+                sb.append("\nrow ").append(e.getKey() + 1)
+                  .append(" \"").append(rows.get(e.getKey())[0]).append("\": ")
+                  .append(e.getValue());
+            }
+            return sb.toString();
+        }
+    }
+
+    private static volatile Batch cached;
+
+    /** Decodes the store's current rows, reusing the last batch if they are unchanged. */
+    public static Batch batch(ProjectStore store) throws IOException {
+        ProjectStore.NameIndex names = store.nameIndex();
+        Batch b = cached;
+        if (b == null || b.rows != names.rows()) {
+            ProjectDecoder decoder;
+            try {
+                decoder = forHeader(store.getFileHeader());
+            } catch (IllegalArgumentException ex) {
+                throw new IOException(ex.getMessage());
+            }
+            b = new Batch(names, decoder);
+            cached = b;
+        }
+        return b;
+    }
+}
@@ -0,0 +1,541 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports the saved projects for finance, as CSV or as a columnar binary
+ * file, optionally gzip-compressed. The format follows the output name:
+ *
+ *   projects.csv   projects.csv.gz   projects.pcol   projects.pcol.gz
+ *
+ * The export is a pipeline of four threads joined by small bounded queues:
+ *
+ *   read lines  →  decode + encode  →  gzip  →  write
+ *
+ * Each stage works on a chunk of rows while its neighbours work on the next
+ * and previous ones, and a full queue stops the stage before it, so memory
+ * use is a few chunks whatever the file size. Rows are decoded through
+ * ProjectDecoder, so older layouts come out in the current one; rows that
+ * cannot be decoded are counted and left out. A file already in the current
+ * layout is checked row by row but copied as written, since re-formatting
+ * its numbers would produce the same text. Projects.csv is read under the
+ * shared file lock, so estimators saving meanwhile wait for the read to end.
+ *
+ * Columnar layout (big-endian, as DataOutputStream writes it):
+ *
+ *   int "PCL2", short columns, then per column: UTF name, byte type
+ *   row groups of up to CHUNK_ROWS rows:
+ *       int rows, then per column: int byte length, the values
+ *   footer:
+ *       int groups, then per group: long offset, int rows, min and max per column
+ *       min and max per column over the whole file
+ *       long footer offset, int "PCL2"
+ *
+ * Types are 0 text (int byte length, then UTF-8), 1 double, 2 int; min and
+ * max are written the same way as the values. Text is not written with
+ * writeUTF, whose 64 KB limit a long project name or location would exceed.
+ * A reader can take the statistics from the footer and skip whole groups or
+ * columns without reading them.
+ *
+ *   java ProjectExport [Projects.csv] <output>
+ *   java ProjectExport --stats <output.pcol>
+ */
+public final class ProjectExport {
+
+    private static final int MAGIC = 0x50434C32;  // "PCL2"
+    private static final int CHUNK_ROWS = 4096;
+    private static final int QUEUE_CHUNKS = 4;    // per queue; bounds memory
+
+    private static final byte TEXT = 0, DOUBLE = 1, INT = 2;
+
+    /** One column of the columnar layout. */
+    private static final class Column {
+        final String name;
+        final byte type;
+        final ToDoubleFunction<ProjectRecord> number;
+        final Function<ProjectRecord, String> text;
+
+        Column(String name, ToDoubleFunction<ProjectRecord> number) {
+            this(name, DOUBLE, number, null);
+        }
+
+        Column(String name, byte type, ToDoubleFunction<ProjectRecord> number, Function<ProjectRecord, String> text) {
+            this.name = name;
+            this.type = type;
+            this.number = number;
+            this.text = text;
+        }
+
+        static Column text(String name, Function<ProjectRecord, String> text) {
+            return new Column(name, TEXT, null, text);
+        }
+    }
+
+    private static final Column[] COLUMNS = {
+        Column.text("Project Name", r -> r.name),
+        Column.text("Location",     r -> r.location),
+        new Column("Length (ft)",    r -> r.length),
+        new Column("Width (ft)",     r -> r.width),
+        new Column("Thickness (in)", r -> r.thickness),
+        new Column("Employees", INT, r -> r.employees, null),
+        new Column("Area (sq ft)",   r -> r.area),
+        new Column("Volume (CY)",    r -> r.volumeCY),
+        new Column("Work Hours",     r -> r.workHours),
+        new Column("Material Cost ($)", r -> r.materialCost),
+        new Column("Labor Cost ($)",    r -> r.laborCost),
+        new Column("Reinforcement ($)", r -> r.reinforcement),
+        new Column("Total Cost ($)",    r -> r.total),
+        Column.text("Discount Rule",  r -> r.discountRule),
+        new Column("Discount (%)",        r -> r.discountPct),
+        new Column("Discounted Total ($)", r -> r.discountedTotal),
+        Column.text("Region",       r -> r.region),
+        Column.text("Rate Version", r -> r.rateVersion),
+    };
+
+    /** What an export did. */
+    public static final class Result {
+        public long rows;
+        public long skipped;   // rows that could not be decoded
+        public long bytesIn;
+        public long bytesOut;
+        public long nanos;
+
+        @Override
+        public String toString() {
+            double seconds = nanos / 1e9;
+            return String.format("%d projects%s, %.1f MB → %.1f MB in %d ms (%.0f MB/s read)",
+                rows, skipped == 0 ? "" : " (" + skipped + " unreadable rows left out)",
+                bytesIn / 1e6, bytesOut / 1e6, nanos / 1_000_000,
+                seconds > 0 ? bytesIn / 1e6 / seconds : 0);
+        }
+    }
+
+    private ProjectExport() {}
+
+    // ── Export ───────────────────────────────────────────────────────────────
+
+    /** Exports the store's file to out, in the format its name asks for. */
+    public static Result export(ProjectStore store, Path out) throws IOException {
+        String name = out.getFileName().toString().toLowerCase(Locale.ROOT);
+        boolean gzip = name.endsWith(".gz");
+        if (gzip) name = name.substring(0, name.length() - 3);
+        boolean columnar = name.endsWith(".pcol");
+        if (!columnar && !name.endsWith(".csv")) {
+            throw new IOException("Export to .csv, .csv.gz, .pcol or .pcol.gz, not " + out.getFileName());
+        }
+
+        Result result = new Result();
+        long start = System.nanoTime();
+        BlockingQueue<List<String>> lines   = new ArrayBlockingQueue<>(QUEUE_CHUNKS);
+        BlockingQueue<byte[]>       encoded = new ArrayBlockingQueue<>(QUEUE_CHUNKS);
+        BlockingQueue<byte[]>       packed  = gzip ? new ArrayBlockingQueue<>(QUEUE_CHUNKS) : encoded;
+        AtomicReference<String> header = new AtomicReference<>();
+        Path tmp = out.resolveSibling(out.getFileName() + ".tmp");
+
+        Pipeline p = new Pipeline();
+        p.stage("read", () -> store.withFileLock(true, () -> {
+            readLines(store.getFile().toPath(), header, lines, result);
+            return null;
+        }));
+        p.stage("encode", () -> {
+            List<String> chunk = lines.take();  // the header is set before the first chunk
+            ProjectDecoder decoder = ProjectDecoder.forHeader(header.get());
+            Encoder enc = columnar ? new ColumnarEncoder()
+                : new CsvEncoder(ProjectRecord.HEADER.equals(header.get()));
+            encoded.put(enc.header());
+            List<String> kept = new ArrayList<>(CHUNK_ROWS);
+            for (; chunk != END_LINES; chunk = lines.take()) {
+                List<ProjectRecord> records = decode(decoder, chunk, kept, result);
+                encoded.put(enc.encode(records, kept));
+            }
+            encoded.put(enc.footer());
+            encoded.put(END);
+        });
+        if (gzip) {
+            p.stage("gzip", () -> {
+                Chunks buf = new Chunks();
+                // Fastest level: about twice the speed of the default, for a file 15-20% larger
+                try (GZIPOutputStream gz = new GZIPOutputStream(buf, 64 * 1024) {{ def.setLevel(Deflater.BEST_SPEED); }}) {
+                    for (byte[] b; (b = encoded.take()) != END; ) {
+                        gz.write(b);
+                        if (buf.size() > 0) packed.put(buf.take());
+                    }
+                }
+                packed.put(buf.take());
+                packed.put(END);
+            });
+        }
+        p.stage("write", () -> {
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                for (byte[] b; (b = packed.take()) != END; ) {
+                    ByteBuffer bb = ByteBuffer.wrap(b);
+                    while (bb.hasRemaining()) result.bytesOut += ch.write(bb);
+                }
+            }
+        });
+        try {
+            p.run();
+        } catch (IOException ex) {
+            Files.deleteIfExists(tmp);
+            throw ex;
+        }
+        Files.move(tmp, out, StandardCopyOption.REPLACE_EXISTING);
+        result.nanos = System.nanoTime() - start;
+        return result;
+    }
+
+    private static final List<String> END_LINES = new ArrayList<>();
+    private static final byte[] END = new byte[0];
+
+    /** Stage 1: hands the file's data lines on in chunks. */
+    private static void readLines(Path file, AtomicReference<String> header,
+                                  BlockingQueue<List<String>> out, Result result) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String first = in.readLine();
+            try {
+                ProjectDecoder.forHeader(first);  // fail here, before any output, if unknown
+            } catch (IllegalArgumentException ex) {
+                throw new IOException(ex.getMessage());
+            }
+            header.set(first);
+            List<String> chunk = new ArrayList<>(CHUNK_ROWS);
+            for (String line; (line = in.readLine()) != null; ) {
+                if (line.isEmpty()) continue;
+                chunk.add(line);
+                if (chunk.size() == CHUNK_ROWS) {
+                    out.put(chunk);
+                    chunk = new ArrayList<>(CHUNK_ROWS);
+                }
+            }
+            if (!chunk.isEmpty()) out.put(chunk);
+            out.put(END_LINES);
+            result.bytesIn = Files.size(file);
+        } catch (InterruptedException ex) {
+            throw new InterruptedIOException("export cancelled");
+        }
+    }
+
+    /** Stage 2, first half: lines to records, and the lines that decoded into kept. */
+    private static List<ProjectRecord> decode(ProjectDecoder decoder, List<String> lines,
+                                              List<String> kept, Result result) {
+        List<ProjectRecord> records = new ArrayList<>(lines.size());
+        kept.clear();
+        Csv.RowCursor row = new Csv.RowCursor();
+        for (String line : lines) {
+            if (row.reset(line).isBlank()) continue;
+            try {
+                records.add(decoder.decode(row.toArray()));
+                kept.add(line);
+            } catch (IllegalArgumentException ex) {
+                result.skipped++;
+            }
+        }
+        result.rows += records.size();
+        return records;
+    }
+
+    // ── Encoders ─────────────────────────────────────────────────────────────
+
+    /** Stage 2, second half: records (and the lines they came from) to output bytes. */
+    private interface Encoder {
+        byte[] header() throws IOException;
+        byte[] encode(List<ProjectRecord> records, List<String> lines) throws IOException;
+        byte[] footer() throws IOException;
+    }
+
+    private static final class CsvEncoder implements Encoder {
+        private final StringBuilder sb = new StringBuilder(CHUNK_ROWS * 240);
+        private final boolean verbatim;  // the source is in the current layout
+
+        CsvEncoder(boolean verbatim) {
+            this.verbatim = verbatim;
+        }
+
+        public byte[] header() {
+            return (ProjectRecord.HEADER + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+        }
+
+        public byte[] encode(List<ProjectRecord> records, List<String> lines) {
+            sb.setLength(0);
+            for (int i = 0; i < records.size(); i++) {
+                sb.append(verbatim ? lines.get(i) : records.get(i).toCsv()).append(System.lineSeparator());
+            }
+            return sb.toString().getBytes(StandardCharsets.UTF_8);
+        }
+
+        public byte[] footer() { return new byte[0]; }
+    }
+
+    /** Min and max of one column over some rows. */
+    private static final class Stats {
+        double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+        String minText, maxText;
+
+        void add(double v) {
+            if (v < min) min = v;
+            if (v > max) max = v;
+        }
+
+        void add(String s) {
+            if (minText == null || s.compareTo(minText) < 0) minText = s;
+            if (maxText == null || s.compareTo(maxText) > 0) maxText = s;
+        }
+
+        void add(Stats o) {
+            if (o.min <= o.max) {
+                add(o.min);
+                add(o.max);
+            }
+            if (o.minText != null) {
+                add(o.minText);
+                add(o.maxText);
+            }
+        }
+
+        /** Written like the column's values; an empty group writes zeros and "". */
+        void write(DataOutputStream out, byte type) throws IOException {
+            boolean empty = min > max && minText == null;
+            switch (type) {
+                case TEXT:
+                    writeText(out, empty ? "" : minText);
+                    writeText(out, empty ? "" : maxText);
+                    break;
+                case INT:
+                    out.writeInt(empty ? 0 : (int) min);
+                    out.writeInt(empty ? 0 : (int) max);
+                    break;
+                default:
+                    out.writeDouble(empty ? 0 : min);
+                    out.writeDouble(empty ? 0 : max);
+            }
+        }
+    }
+
+    private static final class ColumnarEncoder implements Encoder {
+        private final ByteArrayOutputStream group = new ByteArrayOutputStream(1 << 16);
+        private final ByteArrayOutputStream column = new ByteArrayOutputStream(1 << 16);
+        private final List<Long> offsets = new ArrayList<>();
+        private final List<Integer> rows = new ArrayList<>();
+        private final List<Stats[]> groupStats = new ArrayList<>();
+        private long offset;
+
+        public byte[] header() throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeShort(COLUMNS.length);
+            for (Column c : COLUMNS) {
+                out.writeUTF(c.name);
+                out.writeByte(c.type);
+            }
+            return emit(bytes);
+        }
+
+        public byte[] encode(List<ProjectRecord> records, List<String> lines) throws IOException {
+            if (records.isEmpty()) return new byte[0];
+            offsets.add(offset);
+            rows.add(records.size());
+            Stats[] stats = new Stats[COLUMNS.length];
+            group.reset();
+            DataOutputStream out = new DataOutputStream(group);
+            out.writeInt(records.size());
+            DataOutputStream col = new DataOutputStream(column);
+            for (int c = 0; c < COLUMNS.length; c++) {
+                Column spec = COLUMNS[c];
+                Stats s = stats[c] = new Stats();
+                column.reset();
+                for (ProjectRecord r : records) {
+                    if (spec.type == TEXT) {
+                        String v = spec.text.apply(r);
+                        s.add(v);
+                        writeText(col, v);
+                    } else {
+                        double v = spec.number.applyAsDouble(r);
+                        s.add(v);
+                        if (spec.type == INT) col.writeInt((int) v); else col.writeDouble(v);
+                    }
+                }
+                col.flush();
+                out.writeInt(column.size());
+                column.writeTo(out);
+            }
+            groupStats.add(stats);
+            return emit(group);
+        }
+
+        public byte[] footer() throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            Stats[] file = new Stats[COLUMNS.length];
+            for (int c = 0; c < file.length; c++) file[c] = new Stats();
+            out.writeInt(offsets.size());
+            for (int g = 0; g < offsets.size(); g++) {
+                out.writeLong(offsets.get(g));
+                out.writeInt(rows.get(g));
+                Stats[] stats = groupStats.get(g);
+                for (int c = 0; c < COLUMNS.length; c++) {
+                    stats[c].write(out, COLUMNS[c].type);
+                    file[c].add(stats[c]);
+                }
+            }
+            for (int c = 0; c < COLUMNS.length; c++) file[c].write(out, COLUMNS[c].type);
+            out.writeLong(offset);
+            out.writeInt(MAGIC);
+            return emit(bytes);
+        }
+
+        private byte[] emit(ByteArrayOutputStream bytes) {
+            byte[] b = bytes.toByteArray();
+            offset += b.length;
+            return b;
+        }
+    }
+
+    // ── Pipeline ─────────────────────────────────────────────────────────────
+
+    /** The body of one stage. */
+    private interface Stage {
+        void run() throws IOException, InterruptedException;
+    }
+
+    /**
+     * Runs stages on their own threads. If one fails the others are
+     * interrupted, so none stays blocked on a queue, and run() rethrows the
+     * first failure.
+     */
+    private static final class Pipeline {
+        private final List<Thread> threads = new ArrayList<>();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        void stage(String name, Stage body) {
+            Thread t = new Thread(() -> {
+                try {
+                    body.run();
+                } catch (Throwable ex) {
+                    if (failure.compareAndSet(null, ex)) {
+                        for (Thread other : threads) {
+                            if (other != Thread.currentThread()) other.interrupt();
+                        }
+                    }
+                }
+            }, "export-" + name);
+            t.setDaemon(true);
+            threads.add(t);
+        }
+
+        void run() throws IOException {
+            for (Thread t : threads) t.start();
+            try {
+                for (Thread t : threads) t.join();
+            } catch (InterruptedException ex) {
+                for (Thread t : threads) t.interrupt();
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("export cancelled");
+            }
+            Throwable ex = failure.get();
+            if (ex instanceof IOException) throw (IOException) ex;
+            if (ex != null) throw new IOException("Export failed: " + ex, ex);
+        }
+    }
+
+    /** Collects compressed bytes between hand-offs. */
+    private static final class Chunks extends ByteArrayOutputStream {
+        byte[] take() {
+            byte[] b = toByteArray();
+            reset();
+            return b;
+        }
+    }
+
+    // ── Columnar statistics ──────────────────────────────────────────────────
+
+    /** Reads the footer of an uncompressed .pcol file: whole-file min/max per column. */
+    public static String stats(Path pcol) throws IOException {
+        try (RandomAccessFile f = new RandomAccessFile(pcol.toFile(), "r")) {
+            if (f.readInt() != MAGIC) throw new IOException(pcol + " is not a project export (.pcol)");
+            int columns = f.readUnsignedShort();
+            String[] names = new String[columns];
+            byte[] types = new byte[columns];
+            for (int c = 0; c < columns; c++) {
+                names[c] = f.readUTF();
+                types[c] = f.readByte();
+            }
+            f.seek(f.length() - 12);
+            long footer = f.readLong();
+            if (f.readInt() != MAGIC) throw new IOException(pcol + " is truncated");
+            f.seek(footer);
+            int groups = f.readInt();
+            long rows = 0;
+            for (int g = 0; g < groups; g++) {
+                f.readLong();
+                rows += f.readInt();
+                for (int c = 0; c < columns; c++) {
+                    readValue(f, types[c]);
+                    readValue(f, types[c]);
+                }
+            }
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("%d rows in %d groups%n", rows, groups));
+            for (int c = 0; c < columns; c++) {
+                sb.append(String.format("%-22s %16s  %16s%n", names[c],
+                    readValue(f, types[c]), readValue(f, types[c])));
+            }
+            return sb.toString();
+        }
+    }
+
+    private static String readValue(DataInput in, byte type) throws IOException {
+        switch (type) {
+            case TEXT: return readText(in);
+            case INT:  return Integer.toString(in.readInt());
+            default:   return Csv.number(in.readDouble());
+        }
+    }
+
+    /** A text value: its UTF-8 byte length as an int, then the bytes. */
+    private static void writeText(DataOutput out, String s) throws IOException {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readText(DataInput in) throws IOException {
+        int len = in.readInt();
+        if (len < 0) throw new IOException("bad text length " + len);
+        byte[] b = new byte[len];
+        in.readFully(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 2 && args[0].equals("--stats")) {
+            System.out.print(stats(Paths.get(args[1])));
+            return;
+        }
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("usage: java ProjectExport [Projects.csv] <out.csv|out.csv.gz|out.pcol|out.pcol.gz>");
+            System.err.println("       java ProjectExport --stats <out.pcol>");
+            System.exit(2);
+        }
+        String file = args.length == 2 ? args[0] : "Projects.csv";
+        if (!new File(file).exists()) {
+            System.err.println("No such file: " + file);
+            System.exit(1);
+        }
+        Path out = Paths.get(args[args.length - 1]);
+        Result r = export(new ProjectStore(file, ProjectRecord.HEADER), out);
+        System.out.println("Exported " + r + " to " + out);
+    }
+}
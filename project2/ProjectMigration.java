@@ -0,0 +1,94 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Converts a Projects.csv written by older releases to the current layout in
+ * one streaming pass: v1 display strings such as "$1234.50" and "12.345 CY"
+ * become numbers, and v2 rows gain blank Region and Rate Version columns.
+ * Hours.csv gets the same treatment: "3 people" and "12.50 hrs" become 3
+ * and 12.5 under ProjectRecord.HOURS_HEADER.
+ *
+ * A row that cannot be fully converted is copied through exactly as it was,
+ * never dropped or half-converted; the estimators then list it as a row
+ * that could not be read, where it can be deleted. The estimators run this
+ * automatically at startup; it can also be run by hand against any copy of
+ * the files:
+ *
+ *   java ProjectMigration [Projects.csv] [Hours.csv]
+ */
+public class ProjectMigration {
+
+    /** Migrates the store's file if needed; returns rows converted, or -1 if already current. */
+    public static long migrate(ProjectStore store) throws IOException {
+        Path file = store.getFile().toPath();
+        if (!Files.exists(file)) return -1;
+        String first;
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            first = in.readLine();
+        }
+        if (first == null || first.equals(ProjectRecord.HEADER)) return -1;
+        ProjectDecoder decoder;
+        try {
+            decoder = ProjectDecoder.forHeader(first);
+        } catch (IllegalArgumentException ex) {
+            throw new IOException(ex.getMessage());
+        }
+        return convert(store, file, row -> decoder.decode(row).toCsv());
+    }
+
+    /** Migrates Hours.csv (a store with ProjectRecord.HOURS_HEADER) if needed; as migrate(). */
+    public static long migrateHours(ProjectStore store) throws IOException {
+        Path file = store.getFile().toPath();
+        if (!Files.exists(file)) return -1;
+        String first;
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            first = in.readLine();
+        }
+        if (first == null || first.equals(ProjectRecord.HOURS_HEADER)) return -1;
+        if (!first.equals(ProjectRecord.HOURS_HEADER_V1)) {
+            throw new IOException(file.getFileName() + " has an unknown header: " + first);
+        }
+        return convert(store, file, ProjectRecord::hoursFromV1);
+    }
+
+    /** Rewrites the store's rows with the converter, keeping (and counting) rows it rejects. */
+    private static long convert(ProjectStore store, Path file, ProjectStore.LineConverter converter)
+            throws IOException {
+        long[] kept = { 0 };
+        long rows = store.migrate(row -> {
+            try {
+                return converter.convert(row);
+            } catch (IllegalArgumentException ex) {
+                kept[0]++;
+                return null;  // kept as it is
+            }
+        });
+        if (kept[0] > 0) {
+            System.err.println(kept[0] + (kept[0] == 1 ? " row" : " rows") + " of " + file.getFileName()
+                + " could not be converted and " + (kept[0] == 1 ? "was" : "were") + " kept as before");
+        }
+        return rows;
+    }
+
+    public static void main(String[] args) throws IOException {
+        String filename = args.length > 0 ? args[0] : "Projects.csv";
+        String hoursName = args.length > 1 ? args[1] : "Hours.csv";
+        long start = System.nanoTime();
+        long rows = migrate(new ProjectStore(filename, ProjectRecord.HEADER));
+        if (rows < 0) {
+            System.out.println(filename + " is already at schema v" + ProjectRecord.SCHEMA_VERSION + ".");
+        } else {
+            System.out.printf("Migrated %d rows in %s to schema v%d (%d ms)%n",
+                rows, filename, ProjectRecord.SCHEMA_VERSION, (System.nanoTime() - start) / 1_000_000);
+        }
+        start = System.nanoTime();
+        long hours = migrateHours(new ProjectStore(hoursName, ProjectRecord.HOURS_HEADER));
+        if (hours >= 0) {
+            System.out.printf("Migrated %d rows in %s to plain numbers (%d ms)%n",
+                hours, hoursName, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+}
@@ -0,0 +1,362 @@
+import java.io.*;
+import java.util.*;
+import java.util.List;
+
+/**
+ * Filter / range / sort queries over saved concrete projects, e.g.
+ * "all Commercial projects over 50 CY with a discount, sorted by total".
+ *
+ * Queries run against secondary indexes built once per version of the
+ * project table: a hash index on location, sorted indexes on area, volume
+ * and total, a discount bitset and the store's name-word index. A query is
+ * driven from its most selective predicate (or, for a small top-N, walks the
+ * sort order and stops early); the other predicates are checked against
+ * per-row column arrays, so the row strings are never touched.
+ *
+ * Also usable headless:
+ *   java ProjectQuery --location Commercial --min-volume 50 --discounted --sort total --desc
+ */
+public class ProjectQuery {
+
+    /** Numeric columns that can be range-filtered and sorted on. */
+    public enum Field {
+        AREA, VOLUME, TOTAL;
+
+        double of(ProjectRecord r) {
+            switch (this) {
+                case AREA:   return r.area;
+                case VOLUME: return r.volumeCY;
+                default:     return r.total;
+            }
+        }
+    }
+
+    private String  location;
+    private String  nameText;
+    private Boolean discounted;
+    private final double[] min = new double[Field.values().length];
+    private final double[] max = new double[Field.values().length];
+    private Field   sortBy;
+    private boolean descending;
+    private int     limit = Integer.MAX_VALUE;
+
+    public ProjectQuery() {
+        Arrays.fill(min, Double.NEGATIVE_INFINITY);
+        Arrays.fill(max, Double.POSITIVE_INFINITY);
+    }
+
+    // ── Builder ──────────────────────────────────────────────────────────────
+
+    public ProjectQuery location(String location)   { this.location = location; return this; }
+    public ProjectQuery name(String text)           { this.nameText = text; return this; }
+    public ProjectQuery discounted(boolean applied) { this.discounted = applied; return this; }
+    public ProjectQuery limit(int n)                { this.limit = n; return this; }
+
+    /** Keeps rows whose field lies in [lo, hi]; use infinities for open ends. */
+    public ProjectQuery range(Field field, double lo, double hi) {
+        min[field.ordinal()] = lo;
+        max[field.ordinal()] = hi;
+        return this;
+    }
+
+    public ProjectQuery sortBy(Field field, boolean descending) {
+        this.sortBy = field;
+        this.descending = descending;
+        return this;
+    }
+
+    // ── Execution ────────────────────────────────────────────────────────────
+
+    /** Returns the indexes into index.rows() of the matching rows, in result order. */
+    public int[] run(Index index) {
+        int n = index.rows.size();
+        Field[] fields = Field.values();
+
+        // Resolve each predicate to its candidate rows and estimate its size
+        int locId = -2;  // -2 = no location filter, -1 = unknown location
+        if (location != null && !location.trim().isEmpty()) {
+            Integer id = index.locationIds.get(location.trim().toLowerCase(Locale.ROOT));
+            locId = id == null ? -1 : id;
+        }
+        int[] rangeFrom = new int[fields.length];
+        int[] rangeTo   = new int[fields.length];
+        boolean[] ranged = new boolean[fields.length];
+        for (Field f : fields) {
+            int i = f.ordinal();
+            ranged[i] = min[i] != Double.NEGATIVE_INFINITY || max[i] != Double.POSITIVE_INFINITY;
+            rangeFrom[i] = ranged[i] ? index.lowerBound(f, min[i]) : 0;
+            rangeTo[i]   = ranged[i] ? index.upperBound(f, max[i]) : n;
+            // min > max (or a range between two values) matches nothing
+            if (rangeTo[i] <= rangeFrom[i]) return new int[0];
+        }
+        int[] named = nameText == null ? null : index.names.search(nameText);
+        BitSet nameBits = null;
+        if (named != null) {
+            nameBits = new BitSet(n);
+            for (int r : named) nameBits.set(r);
+        }
+        if (locId == -1) return new int[0];
+
+        // Pick the smallest candidate source
+        int[] source = null;   // explicit row list, or null for a sorted-index range
+        Field sourceField = null;
+        int best = n;
+        if (locId >= 0 && index.byLocation[locId].length < best) {
+            source = index.byLocation[locId];
+            best = source.length;
+        }
+        if (named != null && named.length < best) {
+            source = named;
+            best = named.length;
+        }
+        for (Field f : fields) {
+            int size = rangeTo[f.ordinal()] - rangeFrom[f.ordinal()];
+            if (ranged[f.ordinal()] && size < best) {
+                source = null;
+                sourceField = f;
+                best = size;
+            }
+        }
+
+        final int loc = locId;
+        final BitSet nameHits = nameBits;
+        java.util.function.IntPredicate matches = r -> {
+            if (loc >= 0 && index.locationOf[r] != loc) return false;
+            for (int i = 0; i < fields.length; i++) {
+                if (!ranged[i]) continue;
+                double v = index.values[i][r];
+                if (!(v >= min[i] && v <= max[i])) return false;
+            }
+            if (nameHits != null && !nameHits.get(r)) return false;
+            if (discounted != null && index.discounted.get(r) != discounted) return false;
+            return true;
+        };
+
+        // Top-N over a big candidate set: walk the sort order and stop at the limit
+        if (sortBy != null && limit < best / 16) {
+            int[] order = index.sortedRows[sortBy.ordinal()];
+            int from = rangeFrom[sortBy.ordinal()], to = rangeTo[sortBy.ordinal()];
+            int[] out = new int[limit];
+            int k = 0;
+            for (int i = 0; i < to - from && k < limit; i++) {
+                int r = order[descending ? to - 1 - i : from + i];
+                if (matches.test(r)) out[k++] = r;
+            }
+            return Arrays.copyOf(out, k);
+        }
+
+        // Otherwise filter the smallest source, then sort what survived
+        int[] hits = new int[best];
+        int k = 0;
+        if (source != null) {
+            for (int r : source) if (matches.test(r)) hits[k++] = r;
+        } else if (sourceField != null) {
+            int[] order = index.sortedRows[sourceField.ordinal()];
+            for (int i = rangeFrom[sourceField.ordinal()]; i < rangeTo[sourceField.ordinal()]; i++) {
+                if (matches.test(order[i])) hits[k++] = order[i];
+            }
+        } else {
+            for (int r = 0; r < n; r++) if (matches.test(r)) hits[k++] = r;
+        }
+        hits = Arrays.copyOf(hits, k);
+
+        if (sortBy == null) {
+            Arrays.sort(hits);  // file order
+        } else {
+            index.sortByField(hits, sortBy, descending);
+        }
+        return hits.length > limit ? Arrays.copyOf(hits, limit) : hits;
+    }
+
+    // ── Index ────────────────────────────────────────────────────────────────
+
+    private static volatile Index cached;
+
+    /** Returns the index for the store's current decoded rows, reusing the last one if unchanged. */
+    public static Index index(ProjectStore store) throws IOException {
+        ProjectDecoder.Batch batch = ProjectDecoder.batch(store);
+        Index idx = cached;
+        if (idx == null || idx.batch != batch) {
+            idx = new Index(batch);
+            cached = idx;
+        }
+        return idx;
+    }
+
+    /** Secondary indexes over one immutable snapshot of the project rows. */
+    public static final class Index {
+        final List<String[]> rows;
+        final ProjectStore.NameIndex names;
+        final ProjectDecoder.Batch batch;
+        final Map<String, Integer> locationIds = new HashMap<>();  // lower-cased location -> id
+        final int[]   locationOf;   // [row] location id
+        final int[][] byLocation;   // [id] rows, ascending
+        final BitSet  discounted;
+        final double[][] values;      // [field][row], NaN if missing
+        final int[][]    sortedRows;  // [field] row indexes ordered by value, NaN last
+        final double[][] sortedKeys;  // [field] values in that order
+
+        Index(ProjectDecoder.Batch batch) {
+            this.batch = batch;
+            this.names = batch.names;
+            this.rows  = batch.rows;
+            int n = rows.size();
+            int fields = Field.values().length;
+            values     = new double[fields][n];
+            sortedRows = new int[fields][];
+            sortedKeys = new double[fields][];
+            discounted = new BitSet(n);
+            locationOf = new int[n];
+
+            int[] counts = new int[8];
+            for (int r = 0; r < n; r++) {
+                String[] row = rows.get(r);
+                String key = row.length > 1 ? row[1].trim().toLowerCase(Locale.ROOT) : "";
+                Integer id = locationIds.get(key);
+                if (id == null) {
+                    id = locationIds.size();
+                    locationIds.put(key, id);
+                    if (id == counts.length) counts = Arrays.copyOf(counts, id * 2);
+                }
+                locationOf[r] = id;
+                counts[id]++;
+                ProjectRecord rec = batch.records[r];
+                for (Field f : Field.values()) {
+                    values[f.ordinal()][r] = rec != null ? f.of(rec) : Double.NaN;
+                }
+                if (rec != null && rec.hasDiscount()) discounted.set(r);
+            }
+            byLocation = new int[locationIds.size()][];
+            for (int id = 0; id < byLocation.length; id++) byLocation[id] = new int[counts[id]];
+            int[] fill = new int[byLocation.length];
+            for (int r = 0; r < n; r++) byLocation[locationOf[r]][fill[locationOf[r]]++] = r;
+
+            for (Field f : Field.values()) {
+                int[] order = sortedOrder(values[f.ordinal()]);
+                double[] keys = new double[n];
+                for (int i = 0; i < n; i++) keys[i] = values[f.ordinal()][order[i]];
+                sortedRows[f.ordinal()] = order;
+                sortedKeys[f.ordinal()] = keys;
+            }
+        }
+
+        public List<String[]> rows() { return rows; }
+
+        /** The decoded rows, with their malformed-row report. */
+        public ProjectDecoder.Batch batch() { return batch; }
+
+        /** Distinct locations as typed in the file (first spelling seen). */
+        public List<String> locations() {
+            List<String> out = new ArrayList<>();
+            for (int[] hits : byLocation) {
+                String name = hits.length == 0 ? "" : rows.get(hits[0])[1].trim();
+                if (!name.isEmpty()) out.add(name);
+            }
+            Collections.sort(out);
+            return out;
+        }
+
+        /** First position in the sorted index whose value is >= lo. */
+        int lowerBound(Field f, double lo) {
+            double[] keys = sortedKeys[f.ordinal()];
+            int from = 0, to = keys.length;
+            while (from < to) {
+                int mid = (from + to) >>> 1;
+                if (keys[mid] < lo) from = mid + 1; else to = mid;
+            }
+            return from;
+        }
+
+        /** First position whose value is > hi (NaN sorts last and is excluded). */
+        int upperBound(Field f, double hi) {
+            double[] keys = sortedKeys[f.ordinal()];
+            int from = 0, to = keys.length;
+            while (from < to) {
+                int mid = (from + to) >>> 1;
+                if (keys[mid] <= hi) from = mid + 1; else to = mid;
+            }
+            return from;
+        }
+
+        void sortByField(int[] hits, Field f, boolean descending) {
+            double[] vals = values[f.ordinal()];
+            double[] keys = new double[hits.length];
+            for (int i = 0; i < hits.length; i++) keys[i] = vals[hits[i]];
+            int[] order = sortedOrder(keys);
+            int[] copy = hits.clone();
+            for (int i = 0; i < hits.length; i++) {
+                hits[descending ? hits.length - 1 - i : i] = copy[order[i]];
+            }
+        }
+    }
+
+    /**
+     * Returns the positions of vals in ascending order (NaN last) without
+     * boxing: sort (float key, position) pairs packed into longs, then fix
+     * the few pairs the float rounding left out of order.
+     */
+    static int[] sortedOrder(double[] vals) {
+        int n = vals.length;
+        long[] packed = new long[n];
+        for (int i = 0; i < n; i++) {
+            int bits = Double.isNaN(vals[i]) ? Integer.MAX_VALUE : Float.floatToIntBits((float) vals[i]);
+            bits ^= (bits >> 31) & 0x7fffffff;  // make negative floats order correctly as ints
+            packed[i] = ((long) bits << 32) | i;
+        }
+        Arrays.sort(packed);
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) order[i] = (int) packed[i];
+        for (int i = 1; i < n; i++) {
+            int cur = order[i];
+            int j = i - 1;
+            while (j >= 0 && Double.compare(vals[order[j]], vals[cur]) > 0) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = cur;
+        }
+        return order;
+    }
+
+    // ── Headless entry point ─────────────────────────────────────────────────
+
+    public static void main(String[] args) throws IOException {
+        String file = "Projects.csv";
+        ProjectQuery q = new ProjectQuery();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--file":       file = args[++i]; break;
+                case "--location":   q.location(args[++i]); break;
+                case "--name":       q.name(args[++i]); break;
+                case "--discounted": q.discounted(true); break;
+                case "--no-discount":q.discounted(false); break;
+                case "--min-volume": q.min[Field.VOLUME.ordinal()] = Double.parseDouble(args[++i]); break;
+                case "--max-volume": q.max[Field.VOLUME.ordinal()] = Double.parseDouble(args[++i]); break;
+                case "--min-total":  q.min[Field.TOTAL.ordinal()]  = Double.parseDouble(args[++i]); break;
+                case "--max-total":  q.max[Field.TOTAL.ordinal()]  = Double.parseDouble(args[++i]); break;
+                case "--min-area":   q.min[Field.AREA.ordinal()]   = Double.parseDouble(args[++i]); break;
+                case "--max-area":   q.max[Field.AREA.ordinal()]   = Double.parseDouble(args[++i]); break;
+                case "--sort":       q.sortBy = Field.valueOf(args[++i].toUpperCase(Locale.ROOT)); break;
+                case "--desc":       q.descending = true; break;
+                case "--limit":      q.limit(Integer.parseInt(args[++i])); break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(2);
+            }
+        }
+        if (!new File(file).exists()) {
+            System.err.println("No such file: " + file);
+            System.exit(1);
+        }
+
+        Index index = index(new ProjectStore(file, ProjectRecord.HEADER));
+        if (index.batch.malformed() > 0) System.err.println(index.batch.summary(5));
+        long start = System.nanoTime();
+        int[] hits = q.run(index);
+        long micros = (System.nanoTime() - start) / 1000;
+        for (int r : hits) {
+            System.out.println(ProjectStore.formatRow(index.rows.get(r)));
+        }
+        System.err.printf("%d of %d projects matched in %d us%n", hits.length, index.rows.size(), micros);
+    }
+}
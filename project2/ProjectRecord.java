@@ -0,0 +1,260 @@
+import java.util.Locale;
+
+/**
+ * One saved concrete project with its inputs and computed results held as
+ * plain numbers. Projects.csv stores these canonical values; units, "$" and
+ * rounding are applied only when a value is displayed. Schema v3 adds the
+ * pricing region and the version of the rate table the quote was priced
+ * with; v2 rows predate rate tables and read back with both blank.
+ *
+ * Schema v1 files stored the display strings ("12.35 sq ft", "$130.00",
+ * "3 people"); {@link #fromV1} reads those. Rows are decoded through
+ * {@link ProjectDecoder}, which picks the layout from the file's header.
+ */
+public final class ProjectRecord {
+
+    public static final int SCHEMA_VERSION = 3;
+
+    public static final String HEADER_V2 =
+        "Project Name,Location,Length (ft),Width (ft),Thickness (in),Employees,Area (sq ft),Volume (CY),Manpower,Work Hours,Material Cost ($),Labor Cost ($),Reinforcement ($),Total Cost ($),Discount Rule,Discount (%),Discounted Total ($)";
+    public static final String HEADER = HEADER_V2 + ",Region,Rate Version";
+    public static final String HEADER_V1 =
+        "Project Name,Location,Length (ft),Width (ft),Thickness (in),Employees,Area,Volume (CY),Manpower,Work Hours,Material Cost,Labor Cost,Reinforcement,Total Cost,Discount Badge,Discounted Total";
+    public static final int COLUMNS = 19;
+
+    // ── Discount rules (name, threshold, unit, discountPct) ──────────────────
+    // Evaluated in order; only the single highest-pct match is applied.
+    public static final Object[][] DISCOUNT_RULES = {
+        // { display name,  threshold,  "cy"/"sqft"/"emp"/"in",  pct }
+        { "Large Volume (≥50 CY)",     50.0,  "cy",    15.0 },
+        { "Large Area (≥2000 sq ft)", 2000.0, "sqft",  10.0 },
+        { "Medium Volume (≥20 CY)",    20.0,  "cy",     8.0 },
+        { "Thick Slab (≥8 in)",         8.0,  "in",     7.0 },
+        { "Big Crew (≥6 employees)",    6.0,  "emp",    5.0 },
+    };
+
+    public final String name;
+    public final String location;
+    public final double length;       // ft
+    public final double width;        // ft
+    public final double thickness;    // in
+    public final int    employees;
+    public final double area;         // sq ft
+    public final double volumeCY;     // incl. 10% overage
+    public final double workHours;
+    public final double materialCost;
+    public final double laborCost;
+    public final double reinforcement;
+    public final double total;
+    public final String discountRule; // "" when no rule applies
+    public final double discountPct;  // 0 when no rule applies
+    public final double discountedTotal;
+    public final String region;       // "" before rate tables
+    public final String rateVersion;  // PricingModel version; "" before rate tables
+
+    ProjectRecord(String name, String location,
+                  double length, double width, double thickness, int employees,
+                  double area, double volumeCY, double workHours,
+                  double materialCost, double laborCost, double reinforcement, double total,
+                  String discountRule, double discountPct, double discountedTotal,
+                  String region, String rateVersion) {
+        this.name = name;
+        this.location = location;
+        this.length = length;
+        this.width = width;
+        this.thickness = thickness;
+        this.employees = employees;
+        this.area = area;
+        this.volumeCY = volumeCY;
+        this.workHours = workHours;
+        this.materialCost = materialCost;
+        this.laborCost = laborCost;
+        this.reinforcement = reinforcement;
+        this.total = total;
+        this.discountRule = discountRule;
+        this.discountPct = discountPct;
+        this.discountedTotal = discountedTotal;
+        this.region = region;
+        this.rateVersion = rateVersion;
+    }
+
+    // ── Pricing ──────────────────────────────────────────────────────────────
+
+    /**
+     * Prices a slab with one region's rates: material, labor, reinforcement,
+     * leveling and the best discount. The record carries the rates' version.
+     */
+    public static ProjectRecord compute(PricingModel.Rates rates,
+                                        String name, String location,
+                                        double length, double width,
+                                        double thickness, int employees) {
+        double area   = length * width;
+        double vol    = area * (thickness / 12.0);
+        double volCY  = (vol * rates.overage) / 27.0;
+
+        double rebar         = rates.rebarPerCY * volCY;
+        double mesh          = rates.meshPerCY * volCY;
+        double reinforcement = rebar + mesh;
+
+        double leveling    = rates.levelingPerSqFt * area;
+        double emplTimeEst = (volCY * 3.0) / employees;
+        double pourTime    = (volCY * 5.0) / 60.0;
+        double totTime     = emplTimeEst + pourTime + 1.0;
+
+        double matCost   = volCY * rates.materialPerCY;
+        double laborCost = totTime * employees * rates.laborPerHour;
+        double total     = matCost + laborCost + reinforcement + leveling;
+
+        // Evaluate discount rules; pick highest matching pct
+        String bestName = "";
+        double bestPct  = 0.0;
+        for (Object[] rule : DISCOUNT_RULES) {
+            String ruleName  = (String) rule[0];
+            double threshold = (Double) rule[1];
+            String unit      = (String) rule[2];
+            double pct       = (Double) rule[3];
+
+            double value;
+            switch (unit) {
+                case "cy":    value = volCY;     break;
+                case "sqft":  value = area;      break;
+                case "emp":   value = employees; break;
+                case "in":    value = thickness; break;
+                default:      value = 0;         break;
+            }
+
+            if (value >= threshold && pct > bestPct) {
+                bestPct  = pct;
+                bestName = ruleName;
+            }
+        }
+        double discounted = total - total * (bestPct / 100.0);
+
+        return new ProjectRecord(name, location, length, width, thickness, employees,
+            area, volCY, totTime, matCost, laborCost, reinforcement, total,
+            bestName, bestPct, discounted, rates.region, rates.version);
+    }
+
+    /** Same results under a different project name and location. */
+    public ProjectRecord withProject(String name, String location) {
+        return new ProjectRecord(name, location, length, width, thickness, employees,
+            area, volumeCY, workHours, materialCost, laborCost, reinforcement, total,
+            discountRule, discountPct, discountedTotal, region, rateVersion);
+    }
+
+    public boolean hasDiscount() { return discountPct > 0; }
+    public double  savings()     { return total - discountedTotal; }
+
+    // ── CSV (schema v3) ──────────────────────────────────────────────────────
+
+    /** One Projects.csv line; numbers are written exactly, without units or exponents. */
+    public String toCsv() {
+        return new Csv.Writer()
+            .quoted(name).quoted(location)
+            .field(length).field(width).field(thickness).field(employees)
+            .field(area).field(volumeCY).field(employees).field(workHours)
+            .field(materialCost).field(laborCost).field(reinforcement).field(total)
+            .quoted(discountRule).field(discountPct).field(discountedTotal)
+            .quoted(region).quoted(rateVersion)
+            .takeRow();
+    }
+
+    /** The toCsv() line split into its fields, as ProjectStore holds rows. */
+    public String[] toRow() {
+        return Csv.parse(toCsv());
+    }
+
+    // ── Hours.csv ────────────────────────────────────────────────────────────
+
+    /** Hours.csv, the labor log kept beside Projects.csv; crew size and hours are plain numbers. */
+    public static final String HOURS_HEADER = "Project Name,Manpower (people),Work Hours (hrs)";
+    /** Hours.csv as first released, with the values as displayed ("3 people", "12.50 hrs"). */
+    public static final String HOURS_HEADER_V1 = "Project Name,Manpower,Work Hours";
+
+    /** This project's Hours.csv line. */
+    public String toHoursCsv() {
+        return new Csv.Writer().quoted(name).field(employees).field(workHours).takeRow();
+    }
+
+    /** A v1 Hours.csv row in the current layout; throws IllegalArgumentException if a value cannot be read. */
+    public static String hoursFromV1(String[] row) {
+        if (row.length < 3) {
+            throw new IllegalArgumentException("expected 3 columns, found " + row.length);
+        }
+        double people = displayNumber(row[1]), hours = displayNumber(row[2]);
+        if (Double.isNaN(people) || Double.isNaN(hours)) {
+            throw new IllegalArgumentException("a value is not a number");
+        }
+        return new Csv.Writer().quoted(row[0]).field((long) people).field(hours).takeRow();
+    }
+
+    /**
+     * Reads a v1 row of display strings. Rows shorter than 16 columns come from
+     * the first release, which had no reinforcement column; reinforcement is
+     * recomputed from the volume for those, and a total the row lacks is
+     * recomputed from its costs at the built-in rates. Throws
+     * IllegalArgumentException if a value still cannot be read, rather than
+     * giving a record that would be written back with blank numbers.
+     */
+    public static ProjectRecord fromV1(String[] row) {
+        if (row.length < 12) {
+            throw new IllegalArgumentException("expected at least 12 columns, found " + row.length);
+        }
+        double volCY = displayNumber(row[7]);
+        double reinforcement, total, discounted;
+        String badge;
+        if (row.length >= 16) {
+            reinforcement = displayNumber(row[12]);
+            total         = displayNumber(row[13]);
+            badge         = row[14];
+            discounted    = displayNumber(row[15]);
+        } else {
+            reinforcement = 1.30 * volCY + 0.20 * volCY;
+            total         = row.length > 12 ? displayNumber(row[12]) : Double.NaN;
+            badge         = row.length > 13 ? row[13] : "";
+            discounted    = row.length > 14 ? displayNumber(row[14]) : Double.NaN;
+        }
+
+        double area = displayNumber(row[6]);
+        if (Double.isNaN(total)) {
+            total = displayNumber(row[10]) + displayNumber(row[11]) + reinforcement
+                  + PricingModel.BUILT_IN.rates(PricingModel.DEFAULT_REGION).levelingPerSqFt * area;
+        }
+
+        // Badge reads "<rule name>  (–15%)  saves $123.45" or "No discount applies"
+        String rule = "";
+        double pct  = 0;
+        if (!Double.isNaN(discounted) && discounted < total) {
+            int cut = badge.indexOf("  (");
+            rule = cut > 0 ? badge.substring(0, cut) : badge.trim();
+            pct  = cut > 0 ? Math.abs(displayNumber(badge.substring(cut + 3))) : Double.NaN;
+            if (Double.isNaN(pct)) pct = Math.round((1 - discounted / total) * 10000) / 100.0;
+        } else {
+            discounted = total;
+        }
+
+        double employees = displayNumber(row[5]);
+        ProjectRecord r = new ProjectRecord(row[0], row[1],
+            displayNumber(row[2]), displayNumber(row[3]), displayNumber(row[4]),
+            Double.isNaN(employees) ? 0 : (int) employees,
+            area, volCY, displayNumber(row[9]),
+            displayNumber(row[10]), displayNumber(row[11]), reinforcement, total,
+            rule, pct, discounted, "", "");
+        double[] values = { r.length, r.width, r.thickness, r.area, r.volumeCY, r.workHours,
+                            r.materialCost, r.laborCost, r.reinforcement, r.total, r.discountPct, r.discountedTotal };
+        for (double v : values) {
+            if (Double.isNaN(v)) throw new IllegalArgumentException("a value is not a number");
+        }
+        return r;
+    }
+
+    /** Reads the number out of a v1 display value like "$1234.50" or "12.345 CY". */
+    static double displayNumber(String s) {
+        return Csv.leadingNumber(s);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s (%s): %.3f CY, $%.2f", name, location, volumeCY, total);
+    }
+}
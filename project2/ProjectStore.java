@@ -0,0 +1,616 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Concurrency-safe access to a saved-projects CSV file (Projects.csv, Hours.csv).
+ *
+ * Cross-process safety comes from a FileChannel lock on a sidecar ".lock" file,
+ * so several estimators can share one Projects.csv. Inside one JVM, threads
+ * take a read-write lock in front of it, as a JVM may hold only one FileLock
+ * per file: readers run together under one shared FileLock, counted so the
+ * last reader out releases it, and a writer has the file to itself. Writes
+ * to a file are therefore serialized, and since a delete rewrites the whole
+ * file, splitting them by project would not let them overlap; each write
+ * holds the locks only for its short append or rewrite.
+ *
+ * Rows are served from an in-memory table. A WatchService thread tails bytes
+ * appended to the file (tracking the last offset read) and only re-parses the
+ * whole file when it was truncated or replaced.
+ *
+ * UIs should run store calls through {@link #async}, which uses a shared pool
+ * of daemon I/O threads, so a slow disk never stalls the Swing event thread.
+ * Starting the JVM with -Dprojects.slowDiskMs=N delays every locked file
+ * operation by N ms, to check that a UI stays responsive on a slow disk.
+ */
+public class ProjectStore {
+
+    private static final long SLOW_DISK_MS = Long.getLong("projects.slowDiskMs", 0);
+
+    private final Path file;
+    private final Path lockFile;
+    private final String header;
+
+    // A JVM may only hold one FileLock per file, so in-process threads queue here first:
+    // readers on the read side, sharing sharedLock, and writers on the write side
+    private final ReentrantReadWriteLock ioLock = new ReentrantReadWriteLock();
+    private final Object sharedGuard = new Object();
+    private FileChannel sharedChannel;  // guarded by sharedGuard, like the two below
+    private FileLock sharedLock;
+    private int sharedHolders;
+    // Bumped on every write so callers can tell whether a snapshot is stale
+    private final AtomicLong version = new AtomicLong();
+
+    // In-memory table; guarded by tailLock, always taken after ioLock
+    private final Object tailLock = new Object();
+    private List<String[]> table = new ArrayList<>();
+    private volatile List<String[]> tableView = Collections.emptyList();
+    private long readOffset;     // bytes consumed so far, always at a line start
+    private Object readFileKey;  // identity of the file the offset belongs to
+    private final Csv.RowCursor cursor = new Csv.RowCursor();
+    private volatile String fileHeader; // header line as found in the file
+    private Thread watcher;
+    private volatile NameIndex nameIndex; // built lazily for the current tableView
+
+    public ProjectStore(String filename, String header) {
+        this.file     = Paths.get(filename);
+        this.lockFile = Paths.get(filename + ".lock");
+        this.header   = header;
+    }
+
+    public File getFile()    { return file.toFile(); }
+    public long getVersion() { return version.get(); }
+
+    /** The header line of the file as last read (ours, or an older layout's). */
+    public String getFileHeader() throws IOException {
+        readAll();
+        return fileHeader;
+    }
+
+    // ── Locking ──────────────────────────────────────────────────────────────
+
+    /** A block of file work, run under the cross-process lock by withFileLock(). */
+    public interface LockedAction<T> {
+        T run() throws IOException;
+    }
+
+    /**
+     * Runs an action holding the in-process I/O lock and the sidecar file
+     * lock: shared ones alongside other readers, or else exclusively.
+     */
+    public <T> T withFileLock(boolean shared, LockedAction<T> action) throws IOException {
+        if (shared) {
+            ioLock.readLock().lock();
+            try {
+                acquireShared();
+                try {
+                    if (SLOW_DISK_MS > 0) simulateSlowDisk();
+                    return action.run();
+                } finally {
+                    releaseShared();
+                }
+            } finally {
+                ioLock.readLock().unlock();
+            }
+        }
+        ioLock.writeLock().lock();
+        try (FileChannel ch = openLockFile()) {
+            FileLock lock = ch.lock(0, Long.MAX_VALUE, false);
+            try {
+                if (SLOW_DISK_MS > 0) simulateSlowDisk();
+                return action.run();
+            } finally {
+                lock.release();
+            }
+        } finally {
+            ioLock.writeLock().unlock();
+        }
+    }
+
+    /** The first reader in takes the shared FileLock for all of them. */
+    private void acquireShared() throws IOException {
+        synchronized (sharedGuard) {
+            if (sharedHolders == 0) {
+                FileChannel ch = openLockFile();
+                try {
+                    sharedLock = ch.lock(0, Long.MAX_VALUE, true);
+                } catch (IOException | RuntimeException ex) {
+                    ch.close();
+                    throw ex;
+                }
+                sharedChannel = ch;
+            }
+            sharedHolders++;
+        }
+    }
+
+    /** The last reader out releases it. */
+    private void releaseShared() throws IOException {
+        synchronized (sharedGuard) {
+            if (--sharedHolders > 0) return;
+            try {
+                sharedLock.release();
+            } finally {
+                sharedLock = null;
+                sharedChannel.close();
+                sharedChannel = null;
+            }
+        }
+    }
+
+    private FileChannel openLockFile() throws IOException {
+        return FileChannel.open(lockFile,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private static void simulateSlowDisk() throws InterruptedIOException {
+        try {
+            Thread.sleep(SLOW_DISK_MS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted");
+        }
+    }
+
+    // ── Background I/O ───────────────────────────────────────────────────────
+
+    private static final AtomicInteger ioThreads = new AtomicInteger();
+    // Daemon threads, created on demand and reclaimed after a minute idle;
+    // file work is short and rare, so a cached pool never grows large
+    private static final ExecutorService IO = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "project-io-" + ioThreads.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Runs file work on the shared I/O pool. The future completes with the
+     * result, or exceptionally with a CompletionException wrapping the
+     * IOException. Completion happens on the I/O thread; Swing callers hop
+     * back with SwingUtilities.invokeLater.
+     */
+    public static <T> CompletableFuture<T> async(LockedAction<T> work) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return work.run();
+            } catch (IOException ex) {
+                throw new CompletionException(ex);
+            }
+        }, IO);
+    }
+
+    // ── Write path ───────────────────────────────────────────────────────────
+
+    /**
+     * Creates the file with its header row if it is missing. The seeder (may be
+     * null) writes any preset rows; it runs under the exclusive lock so two
+     * processes starting at once cannot both seed the file.
+     * Returns true if the file was created.
+     */
+    public boolean ensureExists(LockedWriter seeder) throws IOException {
+        if (Files.exists(file)) return false;
+        return withFileLock(false, () -> {
+            if (Files.exists(file)) return false;
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+            try (PrintWriter pw = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+                pw.println(header);
+                if (seeder != null) seeder.write(pw);
+            }
+            version.incrementAndGet();
+            return true;
+        });
+    }
+
+    /** Writes rows to a freshly created file. */
+    public interface LockedWriter {
+        void write(PrintWriter pw) throws IOException;
+    }
+
+    /** Appends one already-formatted CSV line. */
+    public void append(String line) throws IOException {
+        ensureExists(null);
+        byte[] bytes = (line + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+        withFileLock(false, () -> {
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.APPEND)) {
+                ByteBuffer buf = ByteBuffer.wrap(bytes);
+                while (buf.hasRemaining()) ch.write(buf);
+            }
+            version.incrementAndGet();
+            return null;
+        });
+    }
+
+    /**
+     * Removes the first row equal to {@code row}. The row is matched by content
+     * rather than by position, so a delete picked from a stale list still hits
+     * the right project even if another user saved or deleted in the meantime.
+     * Returns false if the row is no longer in the file.
+     */
+    public boolean delete(String[] row) throws IOException {
+        return withFileLock(false, () -> {
+            List<String[]> rows;
+            synchronized (tailLock) {
+                tailUnlocked();
+                rows = new ArrayList<>(table);
+            }
+            int idx = -1;
+            for (int i = 0; i < rows.size(); i++) {
+                if (Arrays.equals(rows.get(i), row)) { idx = i; break; }
+            }
+            if (idx < 0) return false;
+            rows.remove(idx);
+            rewriteUnlocked(rows);
+            return true;
+        });
+    }
+
+    /** Maps every data row of the file to its replacement, e.g. the same project repriced. */
+    public interface RowsRewriter {
+        List<String[]> rewrite(List<String[]> rows);
+    }
+
+    /**
+     * Replaces every data row at once, under the exclusive lock, with the
+     * rows as they are in the file at that moment. The file must already be
+     * in the current layout. Returns the number of rows that changed; when
+     * none did, the file is left alone.
+     */
+    public int rewriteAll(RowsRewriter rewriter) throws IOException {
+        ensureExists(null);
+        return withFileLock(false, () -> {
+            List<String[]> rows;
+            synchronized (tailLock) {
+                tailUnlocked();
+                if (!header.equals(fileHeader)) {
+                    throw new IOException(file.getFileName() + " uses an older layout; migrate it first");
+                }
+                rows = new ArrayList<>(table);
+            }
+            List<String[]> out = rewriter.rewrite(rows);
+            int changed = Math.abs(out.size() - rows.size());
+            for (int i = 0; i < Math.min(out.size(), rows.size()); i++) {
+                if (!Arrays.equals(out.get(i), rows.get(i))) changed++;
+            }
+            if (changed > 0) rewriteUnlocked(new ArrayList<>(out));
+            return changed;
+        });
+    }
+
+    /** Rewrites the file through a temp file so readers never see it half-written. */
+    private void rewriteUnlocked(List<String[]> rows) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (PrintWriter pw = new PrintWriter(Files.newBufferedWriter(tmp, StandardCharsets.UTF_8))) {
+            pw.println(header);
+            for (String[] row : rows) pw.println(formatRow(row));
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        version.incrementAndGet();
+
+        // We just wrote the whole file, so adopt it as the table without re-reading
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        synchronized (tailLock) {
+            table = rows;
+            fileHeader = header;
+            readOffset = attrs.size();
+            readFileKey = attrs.fileKey();
+            publish();
+        }
+    }
+
+    /** Converts one data line of an older file layout; returns null to keep the line unchanged. */
+    public interface LineConverter {
+        String convert(String[] row);
+    }
+
+    /**
+     * Rewrites the file in the current layout if its header differs from ours.
+     * Lines are converted one at a time from a reader to a temp file, so memory
+     * use does not depend on the file size. Returns the number of rows
+     * converted, or -1 if the file was already current (or missing).
+     */
+    public long migrate(LineConverter converter) throws IOException {
+        if (!Files.exists(file)) return -1;
+        return withFileLock(false, () -> {
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            long rows = 0;
+            try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String first = in.readLine();
+                if (first == null || first.equals(header)) return -1L;
+                try (PrintWriter pw = new PrintWriter(Files.newBufferedWriter(tmp, StandardCharsets.UTF_8))) {
+                    pw.println(header);
+                    Csv.RowCursor row = new Csv.RowCursor();
+                    String line;
+                    while ((line = in.readLine()) != null) {
+                        if (row.reset(line).isBlank()) continue;
+                        String out = converter.convert(row.toArray());
+                        if (out == null) {
+                            pw.println(line);
+                            continue;
+                        }
+                        pw.println(out);
+                        rows++;
+                    }
+                }
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            version.incrementAndGet();
+            synchronized (tailLock) {
+                readFileKey = null;
+                readOffset = Long.MAX_VALUE;  // forces a full reload on the next tail
+            }
+            return rows;
+        });
+    }
+
+    // ── Read path ────────────────────────────────────────────────────────────
+
+    /**
+     * Returns every data row. This is a memory read: only bytes appended since
+     * the last call are parsed, so the cost does not grow with the file size.
+     */
+    public List<String[]> readAll() throws IOException {
+        ensureExists(null);
+        refresh();
+        return tableView;
+    }
+
+    /** Brings the in-memory table up to date with the file. */
+    public void refresh() throws IOException {
+        withFileLock(true, () -> {
+            synchronized (tailLock) {
+                tailUnlocked();
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Starts a daemon thread that refreshes the table whenever the file changes
+     * on disk, so the next readAll() usually finds nothing new to parse.
+     */
+    public synchronized void startWatching() throws IOException {
+        if (watcher != null) return;
+        Path dir = file.toAbsolutePath().getParent();
+        Path name = file.getFileName();
+        WatchService ws = dir.getFileSystem().newWatchService();
+        dir.register(ws, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+        watcher = new Thread(() -> {
+            try {
+                while (true) {
+                    WatchKey key = ws.take();
+                    boolean changed = false;
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                                || name.equals(event.context())) {
+                            changed = true;
+                        }
+                    }
+                    if (changed && Files.exists(file)) {
+                        try {
+                            refresh();
+                        } catch (IOException ignored) {
+                            // Next readAll() retries the refresh and reports the error
+                        }
+                    }
+                    if (!key.reset()) break;
+                }
+            } catch (InterruptedException ignored) {
+            } finally {
+                try { ws.close(); } catch (IOException ignored) {}
+            }
+        }, "watch-" + name);
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Parses whatever was appended after readOffset. Falls back to a full
+     * reload if the file shrank, was replaced, or the offset no longer sits
+     * right after a newline. Caller holds the file lock and tailLock.
+     */
+    private void tailUnlocked() throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        long size = attrs.size();
+        Object key = attrs.fileKey();
+
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            boolean reload = (key != null && !key.equals(readFileKey))
+                    || size < readOffset
+                    || (readOffset > 0 && !newlineAt(ch, readOffset - 1));
+            if (reload) {
+                table = new ArrayList<>();
+                readOffset = 0;
+            }
+            readFileKey = key;
+            if (size == readOffset) {
+                if (reload) publish();
+                return;
+            }
+
+            boolean skipHeader = readOffset == 0;
+            int added = 0;
+            ByteArrayOutputStream pending = new ByteArrayOutputStream();
+            ByteBuffer buf = ByteBuffer.allocate(64 * 1024);
+            long consumed = readOffset;
+            ch.position(readOffset);
+            while (ch.read(buf) > 0) {
+                buf.flip();
+                byte[] arr = buf.array();
+                int start = 0;
+                for (int i = 0; i < buf.limit(); i++) {
+                    if (arr[i] != '\n') continue;
+                    String line;
+                    if (pending.size() == 0) {
+                        line = new String(arr, start, i - start, StandardCharsets.UTF_8);
+                        consumed += i - start + 1;
+                    } else {
+                        pending.write(arr, start, i - start);
+                        consumed += pending.size() + 1;
+                        line = pending.toString(StandardCharsets.UTF_8);
+                        pending.reset();
+                    }
+                    start = i + 1;
+                    if (skipHeader) {
+                        if (line.endsWith("\r")) line = line.substring(0, line.length() - 1);
+                        fileHeader = line;
+                        skipHeader = false;
+                        continue;
+                    }
+                    if (cursor.reset(line).isBlank()) continue;
+                    table.add(cursor.toArray());
+                    added++;
+                }
+                pending.write(arr, start, buf.limit() - start);
+                buf.clear();
+            }
+            // A trailing partial line stays unread until its newline arrives
+            readOffset = consumed;
+            if (reload || added > 0) publish();
+        }
+    }
+
+    private static boolean newlineAt(FileChannel ch, long pos) throws IOException {
+        ByteBuffer one = ByteBuffer.allocate(1);
+        return ch.read(one, pos) == 1 && one.get(0) == '\n';
+    }
+
+    /** Publishes an immutable copy of the table for lock-free readers. */
+    private void publish() {
+        tableView = Collections.unmodifiableList(new ArrayList<>(table));
+    }
+
+    // ── Name index ───────────────────────────────────────────────────────────
+
+    /** Returns the name index for the current rows, rebuilding it only after a change. */
+    public NameIndex nameIndex() throws IOException {
+        List<String[]> rows = readAll();
+        NameIndex idx = nameIndex;
+        if (idx == null || idx.rows != rows) {
+            idx = new NameIndex(rows);
+            nameIndex = idx;
+        }
+        return idx;
+    }
+
+    /**
+     * Sorted index of the lower-cased words of every project name, used for
+     * type-ahead search. Each distinct word keeps a posting list of the rows
+     * using it, so a lookup is a binary search plus a merge of the hits.
+     */
+    public static final class NameIndex {
+        private final List<String[]> rows;
+        private final String[] words;     // distinct, sorted
+        private final int[][]  postings;  // postings[i] = rows containing words[i], ascending
+
+        NameIndex(List<String[]> rows) {
+            this.rows = rows;
+            Map<String, int[]> lists = new HashMap<>();  // word -> {count, row, row, ...}
+            for (int r = 0; r < rows.size(); r++) {
+                String name = rows.get(r)[0].toLowerCase(Locale.ROOT);
+                int start = 0;
+                while (start < name.length()) {
+                    int end = start;
+                    while (end < name.length() && !Character.isWhitespace(name.charAt(end))) end++;
+                    if (end == start) { start++; continue; }
+                    String w = name.substring(start, end);
+                    start = end + 1;
+                    int[] list = lists.get(w);
+                    if (list == null) {
+                        list = new int[4];
+                    } else if (list[list[0]] == r) {
+                        continue;  // same word twice in one name
+                    }
+                    if (list[0] + 1 == list.length) list = Arrays.copyOf(list, list.length * 2);
+                    list[++list[0]] = r;
+                    lists.put(w, list);
+                }
+            }
+            words = lists.keySet().toArray(new String[0]);
+            Arrays.sort(words);
+            postings = new int[words.length][];
+            for (int i = 0; i < words.length; i++) {
+                int[] list = lists.get(words[i]);
+                postings[i] = Arrays.copyOfRange(list, 1, list[0] + 1);
+            }
+        }
+
+        public List<String[]> rows() { return rows; }
+
+        /**
+         * Returns the indexes (in file order) of rows whose name has a word
+         * starting with the query's first word and contains the whole query.
+         * Returns null for a blank query, meaning "every row".
+         */
+        public int[] search(String query) {
+            String q = query.trim().toLowerCase(Locale.ROOT);
+            if (q.isEmpty()) return null;
+            String first = q.split("\\s+")[0];
+
+            int lo = 0, hi = words.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (words[mid].compareTo(first) < 0) lo = mid + 1; else hi = mid;
+            }
+            int end = lo;
+            while (end < words.length && words[end].startsWith(first)) end++;
+
+            int[] merged;
+            if (end - lo == 1) {
+                merged = postings[lo];
+            } else {
+                BitSet hits = new BitSet(rows.size());
+                for (int i = lo; i < end; i++) {
+                    for (int r : postings[i]) hits.set(r);
+                }
+                merged = hits.stream().toArray();
+            }
+            if (q.equals(first)) return merged.clone();
+
+            int[] out = new int[merged.length];
+            int n = 0;
+            for (int r : merged) {
+                if (rows.get(r)[0].toLowerCase(Locale.ROOT).contains(q)) out[n++] = r;
+            }
+            return Arrays.copyOf(out, n);
+        }
+    }
+
+    // ── CSV format ───────────────────────────────────────────────────────────
+
+    /** Re-quotes the text columns (name, location, discount rule, region, rate version) as the estimator writes them. */
+    public static String formatRow(String[] row) {
+        Csv.Writer w = new Csv.Writer();
+        for (int i = 0; i < row.length; i++) {
+            if (i == 0 || i == 1 || ((i == 14 || i == 17 || i == 18) && row.length == ProjectRecord.COLUMNS)) {
+                w.quoted(row[i]);
+            } else {
+                w.field(row[i]);
+            }
+        }
+        return w.takeRow();
+    }
+}